@@ -0,0 +1,35 @@
+package com.jett.flowershop.application.event;
+
+/**
+ * Published by the application services after a write that can change what the storefront
+ * shows (banners, categories, flowers, reviews, shop info).
+ *
+ * Rules:
+ * - Published after the repository write has been applied
+ * - Carries only which section changed; listeners re-read what they need
+ */
+public class CatalogChangedEvent {
+
+    public enum Section {
+        BANNERS,
+        CATEGORIES,
+        FLOWERS,
+        REVIEWS,
+        SHOP_INFO
+    }
+
+    private final Section section;
+
+    public CatalogChangedEvent(Section section) {
+        this.section = section;
+    }
+
+    public Section getSection() {
+        return section;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogChangedEvent{section=" + section + '}';
+    }
+}
@@ -0,0 +1,106 @@
+package com.jett.flowershop.application.service;
+
+import com.jett.flowershop.application.event.CatalogChangedEvent;
+import com.jett.flowershop.domain.repository.BannerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flips banners in and out of the repository's active list when their start/end dates pass.
+ *
+ * One timer is armed for the earliest upcoming start or end instant across all banners. When
+ * it fires, the repository rebuilds its active list for that instant, a
+ * {@link CatalogChangedEvent} (BANNERS) is published so snapshots and caches pick up the change,
+ * and the timer is re-armed for the next instant. Banner writes re-arm it through the same event.
+ *
+ * Rules:
+ * - At most one timer is pending; re-arming cancels the previous one
+ * - The list is refreshed for the scheduled instant even if the timer fires slightly early
+ */
+@Service
+public class BannerActivationScheduler {
+
+    private final BannerRepository bannerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "banner-activation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> pending;
+    private LocalDateTime pendingAt;
+
+    public BannerActivationScheduler(BannerRepository bannerRepository, ApplicationEventPublisher eventPublisher) {
+        this.bannerRepository = bannerRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void start() {
+        arm();
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getSection() == CatalogChangedEvent.Section.BANNERS) {
+            arm();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Schedules the next activation change, replacing any pending one.
+     */
+    synchronized void arm() {
+        Optional<LocalDateTime> next = bannerRepository.findNextActivationChange();
+        if (next.isPresent() && next.get().equals(pendingAt)) {
+            return;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+            pendingAt = null;
+        }
+        if (next.isEmpty() || timer.isShutdown()) {
+            return;
+        }
+        LocalDateTime at = next.get();
+        long delayNanos = Math.max(0, Duration.between(LocalDateTime.now(), at).toNanos());
+        pendingAt = at;
+        pending = timer.schedule(() -> fire(at), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void fire(LocalDateTime at) {
+        synchronized (this) {
+            if (!at.equals(pendingAt)) {
+                return;
+            }
+            pending = null;
+            pendingAt = null;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            bannerRepository.refreshActiveBanners(now.isBefore(at) ? at : now);
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.BANNERS));
+        } catch (RuntimeException e) {
+            System.err.println("Banner activation refresh failed: " + e.getMessage());
+        } finally {
+            arm();
+        }
+    }
+}
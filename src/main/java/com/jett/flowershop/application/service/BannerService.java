@@ -1,7 +1,9 @@
 package com.jett.flowershop.application.service;
 
+import com.jett.flowershop.application.event.CatalogChangedEvent;
 import com.jett.flowershop.domain.entity.Banner;
 import com.jett.flowershop.domain.repository.BannerRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -15,16 +17,20 @@ import java.util.Optional;
 public class BannerService {
 
     private final BannerRepository bannerRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public BannerService(BannerRepository bannerRepository) {
+    public BannerService(BannerRepository bannerRepository, ApplicationEventPublisher eventPublisher) {
         this.bannerRepository = bannerRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public Banner createBanner(Banner banner) {
         if (banner.getCreatedAt() == null) {
             banner.setCreatedAt(LocalDateTime.now());
         }
-        return bannerRepository.save(banner);
+        Banner saved = bannerRepository.save(banner);
+        catalogChanged();
+        return saved;
     }
 
     public List<Banner> getAllBanners() {
@@ -61,7 +67,9 @@ public class BannerService {
         existingBanner.setStartDate(banner.getStartDate());
         existingBanner.setEndDate(banner.getEndDate());
         
-        return bannerRepository.save(existingBanner);
+        Banner saved = bannerRepository.save(existingBanner);
+        catalogChanged();
+        return saved;
     }
 
     public void deleteBanner(Long id) {
@@ -69,5 +77,10 @@ public class BannerService {
             throw new RuntimeException("Banner not found with id: " + id);
         }
         bannerRepository.deleteById(id);
+        catalogChanged();
+    }
+
+    private void catalogChanged() {
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.BANNERS));
     }
 }
@@ -0,0 +1,24 @@
+package com.jett.flowershop.application.service;
+
+import com.jett.flowershop.domain.query.CacheStatistics;
+import com.jett.flowershop.domain.repository.CacheStatisticsRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Reports hit/miss/eviction counters of the repository caches.
+ */
+@Service
+public class CacheStatisticsService {
+
+    private final CacheStatisticsRepository cacheStatisticsRepository;
+
+    public CacheStatisticsService(CacheStatisticsRepository cacheStatisticsRepository) {
+        this.cacheStatisticsRepository = cacheStatisticsRepository;
+    }
+
+    public List<CacheStatistics> getCacheStatistics() {
+        return cacheStatisticsRepository.findAll();
+    }
+}
@@ -1,7 +1,9 @@
 package com.jett.flowershop.application.service;
 
+import com.jett.flowershop.application.event.CatalogChangedEvent;
 import com.jett.flowershop.domain.entity.Category;
 import com.jett.flowershop.domain.repository.CategoryRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -26,16 +28,20 @@ import java.util.Optional;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public Category createCategory(Category category) {
         if (category.getCreatedAt() == null) {
             category.setCreatedAt(LocalDateTime.now());
         }
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        catalogChanged();
+        return saved;
     }
 
     public List<Category> getAllCategories() {
@@ -56,7 +62,9 @@ public class CategoryService {
         existingCategory.setName(category.getName());
         existingCategory.setDescription(category.getDescription());
         
-        return categoryRepository.save(existingCategory);
+        Category saved = categoryRepository.save(existingCategory);
+        catalogChanged();
+        return saved;
     }
 
     public void deleteCategory(Long id) {
@@ -64,10 +72,15 @@ public class CategoryService {
             throw new RuntimeException("Category not found with id: " + id);
         }
         categoryRepository.deleteById(id);
+        catalogChanged();
     }
 
     // Homepage methods
     public List<Category> getFeaturedCategories() {
         return categoryRepository.findFeaturedCategories();
     }
+
+    private void catalogChanged() {
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.CATEGORIES));
+    }
 }
@@ -1,10 +1,16 @@
 package com.jett.flowershop.application.service;
 
+import com.jett.flowershop.application.event.CatalogChangedEvent;
 import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.domain.query.CursorPage;
+import com.jett.flowershop.domain.query.FlowerFacetCounts;
+import com.jett.flowershop.domain.query.FlowerQuery;
+import com.jett.flowershop.domain.query.PageResult;
 import com.jett.flowershop.domain.repository.FlowerRepository;
 
 import java.time.LocalDateTime;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 /**
@@ -24,27 +30,42 @@ import org.springframework.stereotype.Service;
 @Service
 public class FlowerService {
 
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final FlowerRepository flowerRepository;
+    private final FlowerViewTracker flowerViewTracker;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public FlowerService(FlowerRepository flowerRepository) {
+    public FlowerService(FlowerRepository flowerRepository, FlowerViewTracker flowerViewTracker,
+                         ApplicationEventPublisher eventPublisher) {
         this.flowerRepository = flowerRepository;
+        this.flowerViewTracker = flowerViewTracker;
+        this.eventPublisher = eventPublisher;
     }
 
     public Flower createFlower(Flower flower) {
         if (flower.getCreatedAt() == null) {
             flower.setCreatedAt(LocalDateTime.now());
         }
-        return flowerRepository.save(flower);
+        Flower saved = flowerRepository.save(flower);
+        catalogChanged();
+        return saved;
     }
 
-    public java.util.List<Flower> getAllFlowers() {
-        return flowerRepository.findAll();
+    public CursorPage<Flower> getAllFlowers(Long cursor, Integer limit) {
+        return pageFlowers(new FlowerQuery(), cursor, limit);
     }
 
     public java.util.Optional<Flower> getFlowerById(Long id) {
         return flowerRepository.findById(id);
     }
 
+    public void recordFlowerView(Long id) {
+        flowerViewTracker.recordView(id);
+    }
+
     public Flower updateFlower(Long id, Flower flower) {
         java.util.Optional<Flower> existing = flowerRepository.findById(id);
         if (existing.isEmpty()) {
@@ -56,7 +77,9 @@ public class FlowerService {
         existingFlower.setPrice(flower.getPrice());
         existingFlower.setDescription(flower.getDescription());
         
-        return flowerRepository.save(existingFlower);
+        Flower saved = flowerRepository.save(existingFlower);
+        catalogChanged();
+        return saved;
     }
 
     public void deleteFlower(Long id) {
@@ -64,26 +87,65 @@ public class FlowerService {
             throw new RuntimeException("Flower not found with id: " + id);
         }
         flowerRepository.deleteById(id);
+        catalogChanged();
     }
 
-    public java.util.List<Flower> searchFlowersByName(String name) {
-        return flowerRepository.searchByName(name);
+    public CursorPage<Flower> searchFlowersByName(String name, boolean ignoreAccents, Long cursor, Integer limit) {
+        FlowerQuery query = new FlowerQuery();
+        query.setName(name);
+        query.setIgnoreAccents(ignoreAccents);
+        return isBlank(name) ? emptyPage(limit) : pageFlowers(query, cursor, limit);
     }
 
-    public java.util.List<Flower> filterFlowersByOccasion(String occasion) {
-        return flowerRepository.findByOccasion(occasion);
+    public java.util.List<Flower> autocompleteFlowers(String prefix, int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_AUTOCOMPLETE_LIMIT));
+        return flowerRepository.autocomplete(prefix, boundedLimit);
     }
 
-    public java.util.List<Flower> filterFlowersByColor(String color) {
-        return flowerRepository.findByColor(color);
+    public CursorPage<Flower> filterFlowersByOccasion(String occasion, Long cursor, Integer limit) {
+        FlowerQuery query = new FlowerQuery();
+        query.setOccasion(occasion);
+        return isBlank(occasion) ? emptyPage(limit) : pageFlowers(query, cursor, limit);
     }
 
-    public java.util.List<Flower> filterFlowersByPriceRange(java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice) {
-        return flowerRepository.findByPriceRange(minPrice, maxPrice);
+    public CursorPage<Flower> filterFlowersByColor(String color, Long cursor, Integer limit) {
+        FlowerQuery query = new FlowerQuery();
+        query.setColor(color);
+        return isBlank(color) ? emptyPage(limit) : pageFlowers(query, cursor, limit);
     }
 
-    public java.util.List<Flower> searchFlowersByNameOrOccasion(String keyword) {
-        return flowerRepository.searchByNameOrOccasion(keyword);
+    public CursorPage<Flower> filterFlowersByPriceRange(java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice,
+                                                        Long cursor, Integer limit) {
+        FlowerQuery query = new FlowerQuery();
+        query.setMinPrice(minPrice);
+        query.setMaxPrice(maxPrice);
+        // An inverted range matches nothing, as before
+        boolean inverted = minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0;
+        return inverted ? emptyPage(limit) : pageFlowers(query, cursor, limit);
+    }
+
+    public CursorPage<Flower> searchFlowersByNameOrOccasion(String keyword, Long cursor, Integer limit) {
+        FlowerQuery query = new FlowerQuery();
+        query.setKeyword(keyword);
+        return isBlank(keyword) ? emptyPage(limit) : pageFlowers(query, cursor, limit);
+    }
+
+    public PageResult<Flower> queryFlowers(FlowerQuery query) {
+        if (query.getMinPrice() != null && query.getMaxPrice() != null
+                && query.getMinPrice().compareTo(query.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice must not exceed maxPrice");
+        }
+        query.setPage(Math.max(0, query.getPage()));
+        query.setSize(Math.max(1, Math.min(query.getSize(), MAX_PAGE_SIZE)));
+        return flowerRepository.query(query);
+    }
+
+    public FlowerFacetCounts countFlowerFacets(FlowerQuery query) {
+        if (query.getMinPrice() != null && query.getMaxPrice() != null
+                && query.getMinPrice().compareTo(query.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice must not exceed maxPrice");
+        }
+        return flowerRepository.facetCounts(query);
     }
 
     // Homepage methods
@@ -98,4 +160,27 @@ public class FlowerService {
     public java.util.List<Flower> getBestSellingFlowers(int limit) {
         return flowerRepository.findBestSelling(limit);
     }
+
+    /**
+     * Keyset page in ascending id order; limit defaults to 20 and is capped at 100.
+     */
+    private CursorPage<Flower> pageFlowers(FlowerQuery query, Long cursor, Integer limit) {
+        return flowerRepository.findPage(query, cursor, boundedPageSize(limit));
+    }
+
+    private static CursorPage<Flower> emptyPage(Integer limit) {
+        return new CursorPage<>(new java.util.ArrayList<>(), null, boundedPageSize(limit));
+    }
+
+    private static int boundedPageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private void catalogChanged() {
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.FLOWERS));
+    }
 }
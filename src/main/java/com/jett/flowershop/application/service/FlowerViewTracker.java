@@ -0,0 +1,87 @@
+package com.jett.flowershop.application.service;
+
+import com.jett.flowershop.application.event.CatalogChangedEvent;
+import com.jett.flowershop.domain.repository.FlowerRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffers product-page views and flushes them to the repository in batches.
+ *
+ * Views are counted in striped LongAdder counters per flower id, so recording a view never
+ * locks, allocates (after the first view of a flower) or touches the Flower entity.
+ * A flush drains each counter with sumThenReset, which resets every cell with getAndSet, so a
+ * concurrent view is counted by this flush or the next one. A counter without views since the
+ * last flush is removed, so the map only holds recently viewed flowers. A view racing that
+ * removal still reaches the removed counter, which the next flush drains once more; only a
+ * recorder stalled for a whole flush interval between looking up and incrementing the
+ * counter would miss both flushes.
+ * A scheduled flush applies the aggregated deltas to Flower.viewCount and the
+ * view-count ordering of the hot/featured lists in one repository write, then publishes one
+ * {@link CatalogChangedEvent} since the hot/featured order may have changed.
+ */
+@Service
+public class FlowerViewTracker {
+
+    private final FlowerRepository flowerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrentHashMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    // Adders removed by the last flush, drained once more by the next one; only used by flush
+    private Map<Long, LongAdder> retired = new HashMap<>();
+
+    public FlowerViewTracker(FlowerRepository flowerRepository, ApplicationEventPublisher eventPublisher) {
+        this.flowerRepository = flowerRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void recordView(Long flowerId) {
+        if (flowerId == null) {
+            return;
+        }
+        pendingViews.computeIfAbsent(flowerId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * Applies buffered views to the repository.
+     *
+     * @return number of flowers updated
+     */
+    @Scheduled(fixedDelayString = "${flowershop.views.flush-interval-ms:5000}")
+    public synchronized int flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        retired.forEach((flowerId, adder) -> addDelta(deltas, flowerId, adder.sumThenReset()));
+        retired = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pendingViews.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta > 0) {
+                deltas.put(entry.getKey(), delta);
+            } else if (pendingViews.remove(entry.getKey(), entry.getValue())) {
+                retired.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        flowerRepository.addViewCounts(deltas);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.FLOWERS));
+        return deltas.size();
+    }
+
+    private static void addDelta(Map<Long, Long> deltas, Long flowerId, long delta) {
+        if (delta > 0) {
+            deltas.merge(flowerId, delta, Long::sum);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -1,31 +1,74 @@
 package com.jett.flowershop.application.service;
 
 import com.jett.flowershop.application.dto.ImageUploadResult;
+import jakarta.annotation.PreDestroy;
 import org.imgscalr.Scalr;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.IIOException;
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service for image upload and processing
  * Images are saved to: project-root/uploads/products/{year}/{month}/{productSlug}/
+ *
+ * The thumb, medium and large variants are generated concurrently on a dedicated worker pool,
+ * so an upload takes about as long as its slowest variant. The pool has a fixed number of
+ * threads and a bounded queue. An upload is admitted once, before its image is decoded, by taking
+ * one of (threads + queue) / 3 upload slots; an admitted upload never has more than three jobs
+ * in the pool, so none of its jobs can be rejected halfway. Without a free slot the upload is
+ * rejected instead of piling up and holding web threads. The slot is held until the request and
+ * every job it submitted have finished: resizing and ImageIO ignore interrupts, so jobs of a
+ * timed-out upload keep counting against the pool until they return. A failed or timed-out
+ * upload deletes the directory it created at that point, after its last job has written.
+ *
+ * Variants are downscaled as a cascade: original -> large -> medium -> thumb, each step starting
+ * from the previous unsharpened intermediate, so only the large step touches the full-resolution
+ * pixels. With flowershop.images.cascade-min-psnr > 0, medium and thumb are also resized directly
+ * from the original and the direct result is used whenever the cascade falls below that PSNR.
  */
 @Service
 public class ImageService {
@@ -34,6 +77,8 @@ public class ImageService {
     private static final String BASE_UPLOAD_DIR = "uploads/products";
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
     private static final int MIN_WIDTH = 800;
+    // Upper bound for the decoded (subsampled) image, about 160 MB as ARGB
+    private static final long MAX_DECODED_PIXELS = 40_000_000L;
     private static final List<String> ALLOWED_TYPES = Arrays.asList("image/jpeg", "image/png");
 
     // Image sizes
@@ -46,10 +91,63 @@ public class ImageService {
     private static final float MEDIUM_QUALITY = 0.80f;
     private static final float LARGE_QUALITY = 0.83f;
 
-    public ImageService() {
+    private static final long CWEBP_TIMEOUT_SECONDS = 30;
+    private static final long UPLOAD_TIMEOUT_SECONDS = 120;
+    // Most jobs one upload has in the pool at a time (the three variant encodes)
+    private static final int JOBS_PER_UPLOAD = 3;
+
+    private final ThreadPoolExecutor imageWorkers;
+    // Admission: an upload holds one slot from before its decode until it and its jobs are done
+    private final Semaphore uploadSlots;
+    private final long uploadTimeoutSeconds;
+    // Feed cwebp's stdin and drain its stdout, so the encoding thread can enforce the timeout
+    private final ExecutorService cwebpPipes;
+    private final double cascadeMinPsnr;
+    private final String cwebpCommand;
+    private final long cwebpTimeoutSeconds;
+    // Detected once at startup; when false every variant is saved as JPEG
+    private final boolean webpAvailable;
+
+    @Autowired
+    public ImageService(@Value("${flowershop.images.worker-threads:4}") int workerThreads,
+                        @Value("${flowershop.images.queue-capacity:12}") int queueCapacity,
+                        @Value("${flowershop.images.cascade-min-psnr:0}") double cascadeMinPsnr,
+                        @Value("${flowershop.images.cwebp-command:cwebp}") String cwebpCommand) {
         // Get project root directory (where pom.xml is located)
-        this.projectRoot = System.getProperty("user.dir");
-        System.out.println("ImageService initialized - Project root: " + this.projectRoot);
+        this(System.getProperty("user.dir"), workerThreads, queueCapacity, cascadeMinPsnr, cwebpCommand,
+                UPLOAD_TIMEOUT_SECONDS, CWEBP_TIMEOUT_SECONDS);
+    }
+
+    ImageService(String projectRoot, int workerThreads, int queueCapacity, double cascadeMinPsnr, String cwebpCommand,
+                 long uploadTimeoutSeconds, long cwebpTimeoutSeconds) {
+        this.projectRoot = projectRoot;
+        this.uploadTimeoutSeconds = uploadTimeoutSeconds;
+        this.cascadeMinPsnr = cascadeMinPsnr;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.imageWorkers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.uploadSlots = new Semaphore(Math.max(1, (workerThreads + queueCapacity) / JOBS_PER_UPLOAD));
+        AtomicInteger pipeNumber = new AtomicInteger();
+        this.cwebpPipes = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "cwebp-pipe-" + pipeNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cwebpCommand = cwebpCommand;
+        this.cwebpTimeoutSeconds = cwebpTimeoutSeconds;
+        this.webpAvailable = detectCwebp();
+        System.out.println("ImageService initialized - Project root: " + this.projectRoot
+                + (webpAvailable ? "" : " (cwebp not usable, variants are saved as JPEG)"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        imageWorkers.shutdownNow();
+        cwebpPipes.shutdownNow();
     }
 
     /**
@@ -60,17 +158,6 @@ public class ImageService {
         // Validate file
         validateFile(file);
 
-        // Read image
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
-        if (originalImage == null) {
-            throw new IllegalArgumentException("Invalid image file");
-        }
-
-        // Validate dimensions
-        if (originalImage.getWidth() < MIN_WIDTH) {
-            throw new IllegalArgumentException("Image width must be at least " + MIN_WIDTH + "px");
-        }
-
         // Create directory structure: project-root/uploads/products/{year}/{month}/{productSlug}/
         LocalDateTime now = LocalDateTime.now();
         String year = String.valueOf(now.getYear());
@@ -82,35 +169,203 @@ public class ImageService {
         // Absolute path for file system
         String absoluteBasePath = projectRoot + File.separator + relativePath.replace("/", File.separator);
 
-        System.out.println("=== Image Upload ===");
-        System.out.println("Product slug: " + productSlug);
-        System.out.println("Saving to: " + absoluteBasePath);
+        Path uploadDirectory = Paths.get(absoluteBasePath);
 
-        // Save original image to: uploads/products/{year}/{month}/{productSlug}/original/
-        String originalDirPath = absoluteBasePath + File.separator + "original";
-        createDirectoryIfNotExists(originalDirPath);
-        
-        String originalExtension = getFileExtension(file.getOriginalFilename());
-        String originalFileName = "hoa." + originalExtension;
-        File originalFile = new File(originalDirPath, originalFileName);
-        
-        System.out.println("Original image: " + originalFile.getAbsolutePath());
-        file.transferTo(originalFile);
-
-        // Generate resized images (all start with quality 0.80, reduce if needed)
-        String thumbFileName = generateResizedImage(originalImage, absoluteBasePath, "thumb", THUMB_WIDTH);
-        String mediumFileName = generateResizedImage(originalImage, absoluteBasePath, "medium", MEDIUM_WIDTH);
-        String largeFileName = generateResizedImage(originalImage, absoluteBasePath, "large", LARGE_WIDTH);
-
-        System.out.println("=== Upload Complete ===\n");
-
-        // Return relative URLs for web access
-        return new ImageUploadResult(
-                "/" + relativePath + "/original/" + originalFileName,
-                "/" + relativePath + "/thumb/" + thumbFileName,
-                "/" + relativePath + "/medium/" + mediumFileName,
-                "/" + relativePath + "/large/" + largeFileName
-        );
+        // Admit the whole pipeline, including the full-size decode, before any work is done
+        if (!uploadSlots.tryAcquire()) {
+            throw new RejectedExecutionException("Image processing is busy, please try again later");
+        }
+        Upload upload = new Upload(uploadDirectory, !Files.exists(uploadDirectory));
+        boolean completed = false;
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(uploadTimeoutSeconds);
+
+            // Read image (dimensions are validated from the header before decoding)
+            BufferedImage originalImage = readImage(file);
+
+            System.out.println("=== Image Upload ===");
+            System.out.println("Product slug: " + productSlug);
+            System.out.println("Saving to: " + absoluteBasePath);
+
+            // Save original image to: uploads/products/{year}/{month}/{productSlug}/original/
+            String originalDirPath = absoluteBasePath + File.separator + "original";
+            createDirectoryIfNotExists(originalDirPath);
+
+            String originalExtension = getFileExtension(file.getOriginalFilename());
+            String originalFileName = "hoa." + originalExtension;
+            File originalFile = new File(originalDirPath, originalFileName);
+
+            System.out.println("Original image: " + originalFile.getAbsolutePath());
+            file.transferTo(originalFile);
+
+            // Downscale original -> large -> medium -> thumb, then encode the variants in parallel
+            List<BufferedImage> resized = runAll(upload, List.<Callable<List<BufferedImage>>>of(
+                    () -> resizeCascade(originalImage)), deadline).get(0);
+            List<String> variantFileNames = runAll(upload, List.of(
+                    () -> generateResizedImage(resized.get(0), absoluteBasePath, "thumb", THUMB_WIDTH),
+                    () -> generateResizedImage(resized.get(1), absoluteBasePath, "medium", MEDIUM_WIDTH),
+                    () -> generateResizedImage(resized.get(2), absoluteBasePath, "large", LARGE_WIDTH)
+            ), deadline);
+            String thumbFileName = variantFileNames.get(0);
+            String mediumFileName = variantFileNames.get(1);
+            String largeFileName = variantFileNames.get(2);
+
+            System.out.println("=== Upload Complete ===\n");
+            completed = true;
+
+            // Return relative URLs for web access
+            return new ImageUploadResult(
+                    "/" + relativePath + "/original/" + originalFileName,
+                    "/" + relativePath + "/thumb/" + thumbFileName,
+                    "/" + relativePath + "/medium/" + mediumFileName,
+                    "/" + relativePath + "/large/" + largeFileName
+            );
+        } finally {
+            upload.finish(completed);
+        }
+    }
+
+    /**
+     * Decode the upload at no more than about twice the largest variant's width
+     * The header is read first; wide images are decoded with source subsampling, so peak memory
+     * depends on the target size rather than on the camera resolution
+     *
+     * Subsampling keeps every n-th pixel without filtering, so detail finer than the decoded
+     * resolution can alias (moire) and no later filter removes it. The decoded image is kept at
+     * least twice as wide as the large variant so this only affects detail well below what the
+     * variants can show.
+     */
+    BufferedImage readImage(MultipartFile file) throws IOException {
+        // The ImageInputStream wrapper does not close the stream it reads from
+        try (InputStream upload = file.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(upload)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Invalid image file");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                // Validate dimensions
+                if (width < MIN_WIDTH) {
+                    throw new IllegalArgumentException("Image width must be at least " + MIN_WIDTH + "px");
+                }
+
+                // Keep every n-th pixel in both directions; the result stays >= 2x LARGE_WIDTH wide
+                int subsampling = Math.max(1, width / (2 * LARGE_WIDTH));
+                long decodedPixels = (long) ((width + subsampling - 1) / subsampling)
+                        * ((height + subsampling - 1) / subsampling);
+                if (decodedPixels > MAX_DECODED_PIXELS) {
+                    throw new IllegalArgumentException("Image dimensions " + width + "x" + height + " are not supported");
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                    System.out.println("Decoding " + width + "x" + height + " with 1/" + subsampling + " subsampling");
+                }
+                return reader.read(0, param);
+            } catch (IIOException e) {
+                throw new IllegalArgumentException("Invalid image file");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Run image jobs of an upload on the worker pool and wait for all of them until its deadline
+     * If the pool is full, one job fails or the deadline passes, the upload fails; its jobs that
+     * have not started yet are skipped and running ones finish while still holding its slot
+     */
+    private <T> List<T> runAll(Upload upload, List<Callable<T>> jobs, long deadline) throws IOException {
+        List<Future<T>> futures = new ArrayList<>(jobs.size());
+        try {
+            for (Callable<T> job : jobs) {
+                futures.add(upload.submit(job));
+            }
+            List<T> results = new ArrayList<>(jobs.size());
+            for (Future<T> future : futures) {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (TimeoutException e) {
+            throw new IOException("Image processing timed out after " + uploadTimeoutSeconds + " s", e);
+        } catch (RejectedExecutionException e) {
+            throw new RejectedExecutionException("Image processing is busy, please try again later", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing image", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Error processing image", cause);
+        }
+    }
+
+    /**
+     * One admitted upload. Its slot and, after a failure, the directory it created are released
+     * by whichever of the request and its submitted jobs finishes last, so no job of a timed-out
+     * upload still runs in the pool or writes into the directory once they are released.
+     */
+    private final class Upload {
+        // The request itself plus every submitted job that has not finished
+        private final AtomicInteger holders = new AtomicInteger(1);
+        private final Path directory;
+        private final boolean createdDirectory;
+        private volatile boolean failed;
+
+        private Upload(Path directory, boolean createdDirectory) {
+            this.directory = directory;
+            this.createdDirectory = createdDirectory;
+        }
+
+        private <T> Future<T> submit(Callable<T> job) {
+            holders.incrementAndGet();
+            try {
+                return imageWorkers.submit(() -> {
+                    try {
+                        // A job still queued when its upload failed has nothing left to do
+                        if (failed) {
+                            throw new CancellationException("Upload already failed");
+                        }
+                        return job.call();
+                    } finally {
+                        release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                release();
+                throw e;
+            }
+        }
+
+        /**
+         * Called once by the request when it returns or throws.
+         */
+        private void finish(boolean completed) {
+            failed = !completed;
+            release();
+        }
+
+        private void release() {
+            if (holders.decrementAndGet() > 0) {
+                return;
+            }
+            // Only a directory this upload created; an existing one may hold another upload's images
+            if (failed && createdDirectory) {
+                deleteDirectory(directory);
+            }
+            uploadSlots.release();
+        }
     }
 
     /**
@@ -134,29 +389,91 @@ public class ImageService {
     }
 
     /**
-     * Generate resized image with WebP conversion
-     * Always starts with quality 0.80, reduces by 0.05 if file size exceeds target
+     * Resize original -> large -> medium -> thumb, each step from the previous intermediate
+     * Intermediates are neither antialiased nor sharpened, so each output is filtered exactly once,
+     * as if it had been resized directly from the original
+     *
+     * @return thumb, medium and large, in that order
      */
-    private String generateResizedImage(BufferedImage originalImage, String absoluteBasePath, 
-                                       String sizeName, int targetWidth) throws IOException {
-        System.out.println("Generating " + sizeName + " image (" + targetWidth + "px)...");
-        
-        // FIX 1: Prevent upscaling - don't make images larger than original
-        int originalWidth = originalImage.getWidth();
-        int resizeWidth = Math.min(originalWidth, targetWidth);
-        
-        if (originalWidth < targetWidth) {
-            System.out.println("  ℹ Original width (" + originalWidth + "px) < target (" + targetWidth + "px), skipping upscale");
+    List<BufferedImage> resizeCascade(BufferedImage originalImage) {
+        if (originalImage.getWidth() < LARGE_WIDTH) {
+            System.out.println("  ℹ Original width (" + originalImage.getWidth() + "px) < target (" + LARGE_WIDTH + "px), skipping upscale");
         }
-        
-        // Resize image with high quality
-        BufferedImage resizedImage = Scalr.resize(
-                originalImage,
+        BufferedImage large = resize(originalImage, LARGE_WIDTH);
+        BufferedImage medium = resize(large, MEDIUM_WIDTH);
+        BufferedImage thumb = resize(medium, THUMB_WIDTH);
+        return List.of(
+                checkCascade(originalImage, antialias(thumb), "thumb", THUMB_WIDTH),
+                checkCascade(originalImage, antialias(medium), "medium", MEDIUM_WIDTH),
+                antialias(large)
+        );
+    }
+
+    /**
+     * Resize with high quality to the target width, never upscaling
+     */
+    private BufferedImage resize(BufferedImage source, int targetWidth) {
+        return Scalr.resize(
+                source,
                 Scalr.Method.QUALITY,
                 Scalr.Mode.FIT_TO_WIDTH,
-                resizeWidth,
-                Scalr.OP_ANTIALIAS
+                Math.min(source.getWidth(), targetWidth)
         );
+    }
+
+    private BufferedImage antialias(BufferedImage image) {
+        return Scalr.apply(image, Scalr.OP_ANTIALIAS);
+    }
+
+    /**
+     * When the PSNR check is enabled, compare a cascaded image with a direct resize of the original
+     * and keep the direct one if the cascade is visibly worse
+     */
+    private BufferedImage checkCascade(BufferedImage originalImage, BufferedImage cascaded, String sizeName, int targetWidth) {
+        if (cascadeMinPsnr <= 0) {
+            return cascaded;
+        }
+        BufferedImage direct = antialias(resize(originalImage, targetWidth));
+        double psnr = psnr(cascaded, direct);
+        if (psnr < cascadeMinPsnr) {
+            System.out.println("  ⚠ Cascaded " + sizeName + " PSNR " + String.format("%.1f", psnr) + " dB < " + cascadeMinPsnr + " dB, using direct resize");
+            return direct;
+        }
+        return cascaded;
+    }
+
+    /**
+     * Peak signal-to-noise ratio of two images over their RGB channels, in dB
+     * Images of different sizes (rounding of the height) are compared over their common area
+     */
+    private static double psnr(BufferedImage a, BufferedImage b) {
+        int width = Math.min(a.getWidth(), b.getWidth());
+        int height = Math.min(a.getHeight(), b.getHeight());
+        int[] rowA = new int[width];
+        int[] rowB = new int[width];
+        double squaredError = 0;
+        for (int y = 0; y < height; y++) {
+            a.getRGB(0, y, width, 1, rowA, 0, width);
+            b.getRGB(0, y, width, 1, rowB, 0, width);
+            for (int x = 0; x < width; x++) {
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    int diff = ((rowA[x] >> shift) & 0xFF) - ((rowB[x] >> shift) & 0xFF);
+                    squaredError += diff * diff;
+                }
+            }
+        }
+        double mse = squaredError / (3.0 * width * height);
+        return mse == 0 ? Double.POSITIVE_INFINITY : 10 * Math.log10(255.0 * 255.0 / mse);
+    }
+
+    /**
+     * Generate resized image with WebP conversion
+     * The image is already resized to this variant's width; only the large variant is sharpened
+     * Saved as WebP when it fits the variant's size limit, otherwise as a size-fitted JPEG (whichever is smaller)
+     */
+    private String generateResizedImage(BufferedImage resizedImage, String absoluteBasePath,
+                                       String sizeName, int targetWidth) throws IOException {
+        System.out.println("Generating " + sizeName + " image (" + resizedImage.getWidth() + "px)...");
 
         // FIX 2: Only apply sharpen for large images (not thumb/medium)
         if (targetWidth >= LARGE_WIDTH) {
@@ -177,78 +494,141 @@ public class ImageService {
         // Create size directory: uploads/products/{year}/{month}/{productSlug}/{size}/
         String sizeDirPath = absoluteBasePath + File.separator + sizeName;
         createDirectoryIfNotExists(sizeDirPath);
-        
-        // Step 1: Save as optimized JPEG first
-        String jpgFileName = "hoa_temp.jpg";
-        String jpgFilePath = sizeDirPath + File.separator + jpgFileName;
-        File jpgFile = saveAsJPEGWithSizeLimit(rgbImage, jpgFilePath, sizeName);
-        
-        long jpgSize = jpgFile.length();
-        System.out.println("  → JPG saved: " + formatFileSize(jpgSize));
-        
-        // Step 2: Convert JPEG to WebP (better compression)
-        String webpFileName = "hoa.webp";
-        String webpFilePath = sizeDirPath + File.separator + webpFileName;
-        File webpFile = convertJPGtoWebP(jpgFilePath, webpFilePath);
-        
-        if (webpFile.exists()) {
-            long webpSize = webpFile.length();
-            long saved = jpgSize - webpSize;
-            int percent = (int)((saved * 100.0) / jpgSize);
-            System.out.println("  → WebP saved: " + formatFileSize(webpSize) + " (saved " + formatFileSize(saved) + " = " + percent + "%)");
-            
-            // Delete temp JPG file
-            jpgFile.delete();
-            
-            System.out.println(sizeName + " complete: " + webpFilePath + " (" + formatFileSize(webpSize) + ")");
-            return webpFileName;
-        } else {
-            // Fallback: keep JPG if WebP conversion failed
-            System.out.println("  ⚠ WebP conversion failed, keeping JPG");
-            File finalJpgFile = new File(sizeDirPath, "hoa.jpg");
-            jpgFile.renameTo(finalJpgFile);
-            System.out.println(sizeName + " saved: " + finalJpgFile.getAbsolutePath() + " (" + formatFileSize(jpgSize) + ")");
-            return "hoa.jpg";
+        long maxFileSize = maxFileSize(sizeName);
+
+        // Step 1: Encode WebP straight from the pixels (better compression, no JPEG round-trip)
+        byte[] webp = encodeWebP(rgbImage);
+        if (webp != null && webp.length <= maxFileSize) {
+            return writeVariant(sizeDirPath, sizeName, "hoa.webp", webp);
+        }
+
+        // Step 2: Fall back to a size-fitted JPEG, unless the WebP is still smaller
+        byte[] jpg = encodeJPEGWithSizeLimit(rgbImage, sizeName, maxFileSize);
+        System.out.println("  → JPG encoded: " + formatFileSize(jpg.length));
+        if (webp != null && webp.length < jpg.length) {
+            return writeVariant(sizeDirPath, sizeName, "hoa.webp", webp);
         }
+        if (webpAvailable) {
+            System.out.println("  ⚠ WebP not used, keeping JPG");
+        }
+        return writeVariant(sizeDirPath, sizeName, "hoa.jpg", jpg);
     }
-    
+
+    private String writeVariant(String sizeDirPath, String sizeName, String fileName, byte[] bytes) throws IOException {
+        File file = new File(sizeDirPath, fileName);
+        Files.write(file.toPath(), bytes);
+        System.out.println(sizeName + " complete: " + file.getAbsolutePath() + " (" + formatFileSize(bytes.length) + ")");
+        return fileName;
+    }
+
     /**
-     * Convert JPEG to WebP using cwebp command line tool
+     * Check once that cwebp can encode a 1x1 PPM from stdin, the way every variant is encoded
+     * A cwebp without PNM input support, or one that hangs, counts as not available
      */
-    private File convertJPGtoWebP(String jpgPath, String webpPath) {
+    private boolean detectCwebp() {
         try {
-            // Check if cwebp is available
-            ProcessBuilder checkBuilder = new ProcessBuilder("which", "cwebp");
-            Process checkProcess = checkBuilder.start();
-            checkProcess.waitFor();
-            
-            if (checkProcess.exitValue() != 0) {
-                System.out.println("  ⚠ cwebp not found, skipping WebP conversion");
-                return new File(""); // Return empty file to trigger fallback
+            byte[] webp = runCwebp(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB));
+            return webp.length >= 12 && new String(webp, 0, 4, StandardCharsets.US_ASCII).equals("RIFF")
+                    && new String(webp, 8, 4, StandardCharsets.US_ASCII).equals("WEBP");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Encode WebP with cwebp
+     *
+     * @return the WebP bytes, or null if cwebp is not available or failed
+     */
+    private byte[] encodeWebP(BufferedImage rgbImage) {
+        if (!webpAvailable) {
+            return null;
+        }
+        try {
+            return runCwebp(rgbImage);
+        } catch (IOException e) {
+            System.out.println("  ⚠ WebP conversion error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Run cwebp: the image goes to stdin as a binary PPM, the WebP comes back on stdout
+     * Both pipes are served on the cwebp pipe threads, so a cwebp that stops reading or writing
+     * cannot block this thread past the timeout; the process is killed when it is exceeded
+     */
+    private byte[] runCwebp(BufferedImage rgbImage) throws IOException {
+        // Quality 80; "-o -" writes to stdout, "-- -" reads the input from stdin
+        Process process = new ProcessBuilder(cwebpCommand, "-quiet", "-q", "80", "-o", "-", "--", "-")
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            CompletableFuture<Void> input = CompletableFuture.runAsync(() -> {
+                try (OutputStream stdin = process.getOutputStream()) {
+                    writePPM(rgbImage, stdin);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, cwebpPipes);
+            CompletableFuture<byte[]> output = CompletableFuture.supplyAsync(() -> {
+                try (InputStream stdout = process.getInputStream()) {
+                    return stdout.readAllBytes();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, cwebpPipes);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(cwebpTimeoutSeconds);
+            if (!process.waitFor(cwebpTimeoutSeconds, TimeUnit.SECONDS)) {
+                throw new IOException("cwebp timed out after " + cwebpTimeoutSeconds + " s");
             }
-            
-            // Convert JPG to WebP with quality 80
-            ProcessBuilder builder = new ProcessBuilder(
-                "cwebp",
-                "-q", "80",
-                jpgPath,
-                "-o", webpPath
-            );
-            builder.redirectErrorStream(true);
-            
-            Process process = builder.start();
-            int exitCode = process.waitFor();
-            
-            if (exitCode == 0) {
-                return new File(webpPath);
-            } else {
-                System.out.println("  ⚠ cwebp conversion failed with exit code: " + exitCode);
-                return new File("");
+            if (process.exitValue() != 0) {
+                throw new IOException("cwebp exited with code " + process.exitValue());
             }
-        } catch (Exception e) {
-            System.out.println("  ⚠ WebP conversion error: " + e.getMessage());
-            return new File("");
+            // The process has exited, so both pipes reach EOF shortly
+            long remaining = Math.max(1, deadline - System.nanoTime());
+            input.get(remaining, TimeUnit.NANOSECONDS);
+            byte[] webp = output.get(Math.max(1, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (webp.length == 0) {
+                throw new IOException("cwebp produced no output");
+            }
+            return webp;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running cwebp", e);
+        } catch (TimeoutException e) {
+            throw new IOException("cwebp timed out after " + cwebpTimeoutSeconds + " s", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            throw new IOException("cwebp pipe failed: " + cause.getMessage(), cause);
+        } finally {
+            // Also closes the pipes, so pipe threads blocked on them return
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Write the image as a binary PPM (P6): a short text header followed by raw RGB bytes
+     */
+    private void writePPM(BufferedImage rgbImage, OutputStream out) throws IOException {
+        int width = rgbImage.getWidth();
+        int height = rgbImage.getHeight();
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        buffered.write(("P6\n" + width + " " + height + "\n255\n").getBytes(StandardCharsets.US_ASCII));
+        int[] row = new int[width];
+        byte[] rgb = new byte[width * 3];
+        for (int y = 0; y < height; y++) {
+            rgbImage.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0, i = 0; x < width; x++) {
+                rgb[i++] = (byte) (row[x] >> 16);
+                rgb[i++] = (byte) (row[x] >> 8);
+                rgb[i++] = (byte) row[x];
+            }
+            buffered.write(rgb);
         }
+        buffered.flush();
     }
 
     /**
@@ -272,84 +652,108 @@ public class ImageService {
     }
 
     /**
-     * Save as JPEG with file size limits - re-encode if too large
-     * Logic: resize → encode JPEG q=0.80 → if > target → q -= 0.05 → encode again → repeat until target or q_min
+     * Target file size limit of each variant
      */
-    private File saveAsJPEGWithSizeLimit(BufferedImage image, String outputPath, String sizeName) throws IOException {
-        // Define target file size limits based on image size
-        long maxFileSize;
+    private long maxFileSize(String sizeName) {
         switch (sizeName) {
             case "thumb":
-                maxFileSize = 50 * 1024; // 50 KB
-                break;
+                return 50 * 1024; // 50 KB
             case "medium":
-                maxFileSize = 120 * 1024; // 120 KB
-                break;
+                return 120 * 1024; // 120 KB
             case "large":
-                maxFileSize = 250 * 1024; // 250 KB
-                break;
+                return 250 * 1024; // 250 KB
             default:
-                maxFileSize = 300 * 1024; // 300 KB fallback
+                return 300 * 1024; // 300 KB fallback
         }
-        
-        File outputFile = new File(outputPath);
-        float quality = 0.80f; // Always start with 0.80
-        float qMin = 0.30f;    // Minimum quality
-        int attempts = 0;
-        int maxAttempts = 15;  // Allow more attempts with smaller steps
-        
-        // Encode JPEG, reduce quality if file is too large
-        while (attempts < maxAttempts) {
-            saveAsJPEG(image, outputFile, quality);
-            
-            if (outputFile.length() <= maxFileSize) {
-                if (attempts > 0) {
-                    System.out.println("  ✓ Re-encoded at quality " + Math.round(quality * 100) + "% to fit " + formatFileSize(maxFileSize));
+    }
+
+    /**
+     * Encode as JPEG with file size limits - re-encode if too large
+     * Logic: encode JPEG q=0.80 in memory → if > target → binary-search the grid 0.30, 0.35 ... 0.75
+     * (quality = index * 0.05, index 6..15), about 4 more encodes → return the highest quality that fits
+     * (or the q_min one if nothing fits)
+     */
+    byte[] encodeJPEGWithSizeLimit(BufferedImage image, String sizeName, long maxFileSize) throws IOException {
+        int maxIndex = 16;     // Always start with 0.80
+        int minIndex = 6;      // Minimum quality 0.30
+
+        // One writer and one buffer for every attempt of this variant
+        BufferedImage rgbImage = toRGB(image);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * 1024);
+        try {
+            encodeJPEG(writer, rgbImage, jpegQuality(maxIndex), buffer);
+            if (buffer.size() <= maxFileSize) {
+                return buffer.toByteArray();
+            }
+
+            // maxIndex is too large; minIndex is kept as the answer when nothing above it fits
+            int tooLarge = maxIndex;
+            int fits = minIndex;
+            byte[] best = null;
+            int attempts = 1;
+            while (tooLarge - fits > 1) {
+                int index = (tooLarge + fits) / 2;
+                encodeJPEG(writer, rgbImage, jpegQuality(index), buffer);
+                attempts++;
+                if (buffer.size() <= maxFileSize) {
+                    fits = index;
+                    best = buffer.toByteArray();
+                } else {
+                    System.out.println("  ⚠ " + sizeName + " JPG " + formatFileSize(buffer.size()) + " > " + formatFileSize(maxFileSize) + " at " + index * 5 + "%");
+                    tooLarge = index;
                 }
-                break;
             }
-            
-            // File too large, reduce quality and try again
-            attempts++;
-            if (attempts < maxAttempts) {
-                quality -= 0.05f; // Reduce by 5%
-                if (quality < qMin) quality = qMin; // Don't go below minimum
-                System.out.println("  ⚠ File size " + formatFileSize(outputFile.length()) + " > " + formatFileSize(maxFileSize) + ", re-encoding at " + Math.round(quality * 100) + "%...");
+            if (best == null) {
+                // Nothing above the minimum fits; keep the minimum quality
+                encodeJPEG(writer, rgbImage, jpegQuality(minIndex), buffer);
+                System.out.println("  ⚠ Still " + formatFileSize(buffer.size()) + " at minimum quality " + minIndex * 5 + "%");
+                return buffer.toByteArray();
             }
+            System.out.println("  ✓ Re-encoded at quality " + fits * 5 + "% to fit " + formatFileSize(maxFileSize) + " (" + attempts + " encodes)");
+            return best;
+        } finally {
+            writer.dispose();
         }
-        
-        return outputFile;
     }
-    
+
     /**
-     * Save image as JPEG with specified quality
+     * JPEG quality of a grid index, in steps of 0.05
      */
-    private void saveAsJPEG(BufferedImage image, File outputFile, float quality) throws IOException {
-        // Convert to RGB if needed (JPEG doesn't support alpha channel)
-        BufferedImage rgbImage = image;
-        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
-            rgbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
-            Graphics2D g = rgbImage.createGraphics();
-            g.drawImage(image, 0, 0, null);
-            g.dispose();
-        }
-        
-        // Get JPEG writer
-        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
-        ImageWriter writer = writers.next();
+    private static float jpegQuality(int index) {
+        return index / 20f;
+    }
+
+    /**
+     * Encode image as JPEG with specified quality into the buffer, replacing its content
+     */
+    private void encodeJPEG(ImageWriter writer, BufferedImage rgbImage, float quality,
+                            ByteArrayOutputStream buffer) throws IOException {
         ImageWriteParam writeParam = writer.getDefaultWriteParam();
-        
         writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
         writeParam.setCompressionQuality(quality);
-        
-        try (FileOutputStream fos = new FileOutputStream(outputFile);
-             ImageOutputStream ios = ImageIO.createImageOutputStream(fos)) {
+
+        buffer.reset();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(buffer)) {
             writer.setOutput(ios);
             writer.write(null, new IIOImage(rgbImage, null, null), writeParam);
-            writer.dispose();
         }
     }
 
+    /**
+     * Convert to RGB if needed (JPEG doesn't support alpha channel)
+     */
+    private BufferedImage toRGB(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgbImage.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return rgbImage;
+    }
+
     /**
      * Create directory if not exists
      */
@@ -392,17 +796,31 @@ public class ImageService {
             String relativePath = BASE_UPLOAD_DIR + "/" + year + "/" + month + "/" + productSlug;
             String absolutePath = projectRoot + File.separator + relativePath.replace("/", File.separator);
             
-            Path directory = Paths.get(absolutePath);
-            if (Files.exists(directory)) {
-                Files.walk(directory)
-                        .sorted(java.util.Comparator.reverseOrder())
-                        .map(Path::toFile)
-                        .forEach(File::delete);
+            if (deleteDirectory(Paths.get(absolutePath))) {
                 System.out.println("Deleted images for: " + productSlug);
             }
-        } catch (IOException e) {
+        } catch (RuntimeException e) {
             // Log error but don't throw - deletion is not critical
             System.err.println("Error deleting images: " + e.getMessage());
         }
     }
+
+    /**
+     * Delete a directory with everything in it; errors are logged, not thrown
+     *
+     * @return whether the directory existed
+     */
+    private boolean deleteDirectory(Path directory) {
+        if (!Files.exists(directory)) {
+            return false;
+        }
+        try (java.util.stream.Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(java.util.Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        } catch (IOException e) {
+            System.err.println("Error deleting " + directory + ": " + e.getMessage());
+        }
+        return true;
+    }
 }
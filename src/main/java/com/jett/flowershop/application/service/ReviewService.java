@@ -1,7 +1,10 @@
 package com.jett.flowershop.application.service;
 
+import com.jett.flowershop.application.event.CatalogChangedEvent;
 import com.jett.flowershop.domain.entity.Review;
+import com.jett.flowershop.domain.query.RatingSummary;
 import com.jett.flowershop.domain.repository.ReviewRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -11,9 +14,11 @@ import java.util.List;
 public class ReviewService {
     
     private final ReviewRepository reviewRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ReviewService(ReviewRepository reviewRepository) {
+    public ReviewService(ReviewRepository reviewRepository, ApplicationEventPublisher eventPublisher) {
         this.reviewRepository = reviewRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public Review createReview(String customerName, String customerEmail, String customerAvatar, 
@@ -30,7 +35,9 @@ public class ReviewService {
         review.setApproved(false);
         review.setStatus("PENDING");
         review.setCreatedAt(LocalDateTime.now());
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        catalogChanged();
+        return saved;
     }
 
     public Review getReviewById(Long id) {
@@ -54,24 +61,34 @@ public class ReviewService {
         return reviewRepository.findByFlowerId(flowerId);
     }
 
+    public RatingSummary getRatingSummary(Long flowerId) {
+        return reviewRepository.findRatingSummary(flowerId);
+    }
+
     public Review approveReview(Long id) {
         Review review = getReviewById(id);
         review.setApproved(true);
         review.setStatus("APPROVED");
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        catalogChanged();
+        return saved;
     }
 
     public Review rejectReview(Long id) {
         Review review = getReviewById(id);
         review.setApproved(false);
         review.setStatus("REJECTED");
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        catalogChanged();
+        return saved;
     }
 
     public Review setFeatured(Long id, boolean featured) {
         Review review = getReviewById(id);
         review.setFeatured(featured);
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        catalogChanged();
+        return saved;
     }
 
     public void deleteReview(Long id) {
@@ -79,5 +96,10 @@ public class ReviewService {
             throw new RuntimeException("Review not found with id: " + id);
         }
         reviewRepository.deleteById(id);
+        catalogChanged();
+    }
+
+    private void catalogChanged() {
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.REVIEWS));
     }
 }
@@ -1,7 +1,9 @@
 package com.jett.flowershop.application.service;
 
+import com.jett.flowershop.application.event.CatalogChangedEvent;
 import com.jett.flowershop.domain.entity.ShopInfo;
 import com.jett.flowershop.domain.repository.ShopInfoRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -10,9 +12,11 @@ import java.time.LocalDateTime;
 public class ShopInfoService {
     
     private final ShopInfoRepository shopInfoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ShopInfoService(ShopInfoRepository shopInfoRepository) {
+    public ShopInfoService(ShopInfoRepository shopInfoRepository, ApplicationEventPublisher eventPublisher) {
         this.shopInfoRepository = shopInfoRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public ShopInfo getShopInfo() {
@@ -42,7 +46,9 @@ public class ShopInfoService {
         shopInfo.setInstagramUrl(instagramUrl);
         shopInfo.setUpdatedAt(LocalDateTime.now());
 
-        return shopInfoRepository.save(shopInfo);
+        ShopInfo saved = shopInfoRepository.save(shopInfo);
+        catalogChanged();
+        return saved;
     }
 
     private ShopInfo createDefaultShopInfo() {
@@ -61,4 +67,8 @@ public class ShopInfoService {
         defaultInfo.setUpdatedAt(LocalDateTime.now());
         return shopInfoRepository.save(defaultInfo);
     }
+
+    private void catalogChanged() {
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.SHOP_INFO));
+    }
 }
@@ -0,0 +1,12 @@
+package com.jett.flowershop.common.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (e.g. flushing buffered view counts)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
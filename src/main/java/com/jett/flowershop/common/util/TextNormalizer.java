@@ -0,0 +1,34 @@
+package com.jett.flowershop.common.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Text folding helpers for search.
+ *
+ * fold("Hoa Hồng Đỏ") -> "hoa hong do"
+ */
+public final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Accent- and case-folded form: strips diacritics (including the Vietnamese đ/Đ,
+     * which has no decomposition) and lower-cases with a locale-independent mapping.
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        return stripped
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,57 @@
+package com.jett.flowershop.domain.query;
+
+/**
+ * Point-in-time counters of one entity cache, e.g. "flowers".
+ *
+ * Rules:
+ * - No framework dependency
+ * - Counters are cumulative since startup; hitRate is hits / (hits + misses), 1.0 when unused
+ */
+public class CacheStatistics {
+    private final String name;
+    private final long size;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long evictionWeight;
+    private final double hitRate;
+
+    public CacheStatistics(String name, long size, long hitCount, long missCount,
+                           long evictionCount, long evictionWeight, double hitRate) {
+        this.name = name;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+        this.hitRate = hitRate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getEvictionWeight() {
+        return evictionWeight;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+}
@@ -0,0 +1,39 @@
+package com.jett.flowershop.domain.query;
+
+import java.util.List;
+
+/**
+ * One keyset page of a query result in ascending id order.
+ *
+ * Rules:
+ * - nextCursor is the id of the last item, or null when there are no more results
+ * - Passing nextCursor back returns the items with a greater id, so pages stay stable
+ *   while flowers are added or deleted
+ */
+public class CursorPage<T> {
+    private final List<T> items;
+    private final Long nextCursor;
+    private final int limit;
+
+    public CursorPage(List<T> items, Long nextCursor, int limit) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
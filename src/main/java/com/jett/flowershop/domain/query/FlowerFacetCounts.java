@@ -0,0 +1,50 @@
+package com.jett.flowershop.domain.query;
+
+import java.util.Map;
+
+/**
+ * Facet counts for the catalog filter sidebar, e.g. color "red" -> 124.
+ *
+ * Each facet is counted under every criterion of the query except its own, so the sidebar
+ * shows how many results picking another value of that facet would give.
+ * Occasion and color keys are lower-cased; price buckets are labelled "min-max" or "min+".
+ */
+public class FlowerFacetCounts {
+    private final long total;
+    private final Map<String, Long> occasions;
+    private final Map<String, Long> colors;
+    private final Map<Long, Long> categories;
+    private final Map<String, Long> priceBuckets;
+
+    public FlowerFacetCounts(long total,
+                             Map<String, Long> occasions,
+                             Map<String, Long> colors,
+                             Map<Long, Long> categories,
+                             Map<String, Long> priceBuckets) {
+        this.total = total;
+        this.occasions = occasions;
+        this.colors = colors;
+        this.categories = categories;
+        this.priceBuckets = priceBuckets;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<String, Long> getOccasions() {
+        return occasions;
+    }
+
+    public Map<String, Long> getColors() {
+        return colors;
+    }
+
+    public Map<Long, Long> getCategories() {
+        return categories;
+    }
+
+    public Map<String, Long> getPriceBuckets() {
+        return priceBuckets;
+    }
+}
@@ -0,0 +1,130 @@
+package com.jett.flowershop.domain.query;
+
+import java.math.BigDecimal;
+
+/**
+ * Combined catalog filter: every non-null criterion must match.
+ *
+ * Rules:
+ * - No framework dependency
+ * - occasion/color/status match case-insensitively
+ * - keyword matches name or occasion as a case-insensitive substring
+ * - name matches the name alone, optionally ignoring Vietnamese accents
+ * - price bounds are inclusive
+ */
+public class FlowerQuery {
+    private String occasion;
+    private String color;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Long categoryId;
+    private String keyword;
+    private String name;
+    private boolean ignoreAccents;
+    private String status;
+    private FlowerSort sort;
+    private int page;
+    private int size;
+
+    public FlowerQuery() {
+        this.sort = FlowerSort.ID;
+        this.page = 0;
+        this.size = 20;
+    }
+
+    public String getOccasion() {
+        return occasion;
+    }
+
+    public void setOccasion(String occasion) {
+        this.occasion = occasion;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public void setKeyword(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public boolean isIgnoreAccents() {
+        return ignoreAccents;
+    }
+
+    public void setIgnoreAccents(boolean ignoreAccents) {
+        this.ignoreAccents = ignoreAccents;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public FlowerSort getSort() {
+        return sort;
+    }
+
+    public void setSort(FlowerSort sort) {
+        this.sort = sort == null ? FlowerSort.ID : sort;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,29 @@
+package com.jett.flowershop.domain.query;
+
+import java.util.Locale;
+
+/**
+ * Result orderings supported by {@link FlowerQuery}.
+ */
+public enum FlowerSort {
+    ID,
+    PRICE_ASC,
+    PRICE_DESC,
+    BEST_SELLING,
+    MOST_VIEWED,
+    NEWEST;
+
+    /**
+     * Parses "price_asc", "PRICE-ASC", ... ; null or blank means {@link #ID}.
+     */
+    public static FlowerSort fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return ID;
+        }
+        try {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort: " + value);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.jett.flowershop.domain.query;
+
+import java.util.List;
+
+/**
+ * One page of a query result plus the total number of matches.
+ */
+public class PageResult<T> {
+    private final List<T> items;
+    private final int page;
+    private final int size;
+    private final long totalElements;
+
+    public PageResult(List<T> items, int page, int size, long totalElements) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public int getTotalPages() {
+        return size <= 0 ? 0 : (int) ((totalElements + size - 1) / size);
+    }
+}
@@ -0,0 +1,54 @@
+package com.jett.flowershop.domain.query;
+
+/**
+ * Aggregated star ratings of one flower's approved reviews.
+ *
+ * Rules:
+ * - No framework dependency
+ * - Only ratings 1-5 are counted; average is sum / count, 0.0 when there are none
+ * - Immutable; getHistogram returns a copy indexed by stars - 1
+ */
+public class RatingSummary {
+    private final Long flowerId;
+    private final long count;
+    private final long sum;
+    private final long[] histogram;
+
+    public RatingSummary(Long flowerId, long count, long sum, long[] histogram) {
+        this.flowerId = flowerId;
+        this.count = count;
+        this.sum = sum;
+        this.histogram = histogram.clone();
+    }
+
+    public static RatingSummary empty(Long flowerId) {
+        return new RatingSummary(flowerId, 0, 0, new long[5]);
+    }
+
+    public Long getFlowerId() {
+        return flowerId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * Number of reviews with the given rating (1-5).
+     */
+    public long getStarCount(int stars) {
+        return histogram[stars - 1];
+    }
+
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+}
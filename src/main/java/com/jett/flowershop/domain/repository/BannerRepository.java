@@ -2,6 +2,7 @@ package com.jett.flowershop.domain.repository;
 
 import com.jett.flowershop.domain.entity.Banner;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,7 +17,21 @@ public interface BannerRepository {
     
     List<Banner> findAll();
     
+    /**
+     * Banners inside their activation window as of the last refresh, in display order.
+     * The list is prepared on write and by {@link #refreshActiveBanners}; do not modify it.
+     */
     List<Banner> findActiveBanners();
+
+    /**
+     * Rebuilds the active list for the given instant.
+     */
+    void refreshActiveBanners(LocalDateTime now);
+
+    /**
+     * First instant after the last refresh at which a banner enters or leaves its window.
+     */
+    Optional<LocalDateTime> findNextActivationChange();
     
     List<Banner> findByType(String bannerType);
     
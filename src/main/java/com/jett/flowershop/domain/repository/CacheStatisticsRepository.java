@@ -0,0 +1,17 @@
+package com.jett.flowershop.domain.repository;
+
+import com.jett.flowershop.domain.query.CacheStatistics;
+
+import java.util.List;
+
+/**
+ * Read access to the statistics of the repository caches.
+ *
+ * Rules:
+ * - No framework dependency
+ * - Empty when caching is disabled
+ */
+public interface CacheStatisticsRepository {
+
+    List<CacheStatistics> findAll();
+}
@@ -1,8 +1,13 @@
 package com.jett.flowershop.domain.repository;
 
 import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.domain.query.CursorPage;
+import com.jett.flowershop.domain.query.FlowerFacetCounts;
+import com.jett.flowershop.domain.query.FlowerQuery;
+import com.jett.flowershop.domain.query.PageResult;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -16,6 +21,9 @@ public interface FlowerRepository {
 
     Flower save(Flower flower);
 
+    // Saves every flower in one write (one transaction / one sync), e.g. for catalog imports
+    List<Flower> saveAll(List<Flower> flowers);
+
     Optional<Flower> findById(Long id);
 
     List<Flower> findAll();
@@ -24,16 +32,21 @@ public interface FlowerRepository {
 
     boolean existsById(Long id);
 
-    // Search and filter methods
-    List<Flower> searchByName(String name);
+    // Adds batched view deltas (flower id -> views) to Flower.viewCount
+    void addViewCounts(Map<Long, Long> deltas);
 
-    List<Flower> findByOccasion(String occasion);
+    // Search and filter methods
+    // Type-ahead: active flowers whose name starts with the prefix, most popular first
+    List<Flower> autocomplete(String prefix, int limit);
 
-    List<Flower> findByColor(String color);
+    // Combined filter (occasion, color, price, category, keyword, status) with sort and paging
+    PageResult<Flower> query(FlowerQuery query);
 
-    List<Flower> findByPriceRange(java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice);
+    // Keyset page of the query's matches in ascending id order, starting after the cursor id (null = first page)
+    CursorPage<Flower> findPage(FlowerQuery query, Long cursor, int limit);
 
-    List<Flower> searchByNameOrOccasion(String keyword);
+    // Facet counts (occasion, color, category, price bucket) under the query's filters; sort and paging are ignored
+    FlowerFacetCounts facetCounts(FlowerQuery query);
 
     // Homepage methods
     List<Flower> findHotFlowers();
@@ -1,6 +1,7 @@
 package com.jett.flowershop.domain.repository;
 
 import com.jett.flowershop.domain.entity.Review;
+import com.jett.flowershop.domain.query.RatingSummary;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,6 +13,7 @@ public interface ReviewRepository {
     List<Review> findFeaturedReviews();
     List<Review> findApprovedReviews();
     List<Review> findByFlowerId(Long flowerId);
+    RatingSummary findRatingSummary(Long flowerId);
     void deleteById(Long id);
     boolean existsById(Long id);
 }
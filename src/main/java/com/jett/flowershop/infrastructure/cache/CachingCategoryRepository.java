@@ -0,0 +1,69 @@
+package com.jett.flowershop.infrastructure.cache;
+
+import com.jett.flowershop.domain.entity.Category;
+import com.jett.flowershop.domain.repository.CategoryRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of any {@link CategoryRepository}.
+ *
+ * Rules:
+ * - Only findById/existsById are cached; lists go to the wrapped repository
+ * - save/delete invalidate the id after the wrapped repository has applied the write
+ */
+public class CachingCategoryRepository implements CategoryRepository {
+
+    private final CategoryRepository delegate;
+    private final EntityCache<Category> cache;
+
+    public CachingCategoryRepository(CategoryRepository delegate, EntityCache<Category> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    /**
+     * Estimated heap footprint of a cached category in bytes.
+     */
+    public static int weigh(Category category) {
+        return 160
+                + EntityCache.weightOf(category.getName())
+                + EntityCache.weightOf(category.getDescription())
+                + EntityCache.weightOf(category.getImageUrl())
+                + EntityCache.weightOf(category.getStatus());
+    }
+
+    @Override
+    public Category save(Category category) {
+        Category saved = delegate.save(category);
+        cache.invalidate(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public Optional<Category> findById(Long id) {
+        return cache.get(id, delegate::findById);
+    }
+
+    @Override
+    public List<Category> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        cache.invalidate(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return cache.contains(id) || delegate.existsById(id);
+    }
+
+    @Override
+    public List<Category> findFeaturedCategories() {
+        return delegate.findFeaturedCategories();
+    }
+}
@@ -0,0 +1,127 @@
+package com.jett.flowershop.infrastructure.cache;
+
+import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.domain.query.CursorPage;
+import com.jett.flowershop.domain.query.FlowerFacetCounts;
+import com.jett.flowershop.domain.query.FlowerQuery;
+import com.jett.flowershop.domain.query.PageResult;
+import com.jett.flowershop.domain.repository.FlowerRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of any {@link FlowerRepository}.
+ *
+ * findById/existsById are served from an {@link EntityCache}; list, search and filter
+ * methods go straight to the wrapped repository, whose indexes (or database) answer them.
+ *
+ * Rules:
+ * - Every write invalidates the ids it touched after the wrapped repository has applied it
+ * - Cached flowers are shared between callers, like the in-memory repository's live objects
+ */
+public class CachingFlowerRepository implements FlowerRepository {
+
+    private final FlowerRepository delegate;
+    private final EntityCache<Flower> cache;
+
+    public CachingFlowerRepository(FlowerRepository delegate, EntityCache<Flower> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    /**
+     * Estimated heap footprint of a cached flower in bytes.
+     */
+    public static int weigh(Flower flower) {
+        return 256
+                + EntityCache.weightOf(flower.getName())
+                + EntityCache.weightOf(flower.getDescription())
+                + EntityCache.weightOf(flower.getOccasion())
+                + EntityCache.weightOf(flower.getColor())
+                + EntityCache.weightOf(flower.getImageUrl())
+                + EntityCache.weightOf(flower.getStatus());
+    }
+
+    @Override
+    public Flower save(Flower flower) {
+        Flower saved = delegate.save(flower);
+        cache.invalidate(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public List<Flower> saveAll(List<Flower> flowers) {
+        List<Flower> saved = delegate.saveAll(flowers);
+        List<Long> ids = new ArrayList<>(saved.size());
+        for (Flower flower : saved) {
+            ids.add(flower.getId());
+        }
+        cache.invalidateAll(ids);
+        return saved;
+    }
+
+    @Override
+    public Optional<Flower> findById(Long id) {
+        return cache.get(id, delegate::findById);
+    }
+
+    @Override
+    public List<Flower> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        cache.invalidate(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return cache.contains(id) || delegate.existsById(id);
+    }
+
+    @Override
+    public void addViewCounts(Map<Long, Long> deltas) {
+        delegate.addViewCounts(deltas);
+        cache.invalidateAll(deltas.keySet());
+    }
+
+    @Override
+    public List<Flower> autocomplete(String prefix, int limit) {
+        return delegate.autocomplete(prefix, limit);
+    }
+
+    @Override
+    public PageResult<Flower> query(FlowerQuery query) {
+        return delegate.query(query);
+    }
+
+    @Override
+    public CursorPage<Flower> findPage(FlowerQuery query, Long cursor, int limit) {
+        return delegate.findPage(query, cursor, limit);
+    }
+
+    @Override
+    public FlowerFacetCounts facetCounts(FlowerQuery query) {
+        return delegate.facetCounts(query);
+    }
+
+    @Override
+    public List<Flower> findHotFlowers() {
+        return delegate.findHotFlowers();
+    }
+
+    @Override
+    public List<Flower> findFeaturedFlowers() {
+        return delegate.findFeaturedFlowers();
+    }
+
+    @Override
+    public List<Flower> findBestSelling(int limit) {
+        return delegate.findBestSelling(limit);
+    }
+}
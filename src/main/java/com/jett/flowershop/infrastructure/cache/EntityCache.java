@@ -0,0 +1,82 @@
+package com.jett.flowershop.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.jett.flowershop.domain.query.CacheStatistics;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Id -> entity cache bounded by estimated memory weight.
+ *
+ * Backed by Caffeine, whose W-TinyLFU policy admits a new entry only if it is likely to be
+ * read more often than the entry it would evict, so a burst of one-off reads (a crawler
+ * walking the catalog) does not flush the hot SKUs.
+ *
+ * Rules:
+ * - Only found entities are cached; a miss for an unknown id goes to the repository every time
+ * - Loads are atomic per id, so invalidating after a write cannot be undone by a concurrent load
+ */
+public class EntityCache<T> {
+
+    private final String name;
+    private final Cache<Long, T> cache;
+
+    public EntityCache(String name, long maxWeightBytes, ToIntFunction<T> weigher) {
+        this.name = name;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long id, T entity) -> weigher.applyAsInt(entity))
+                .recordStats()
+                .build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Cached entity, or the loader's result (cached when present).
+     */
+    public Optional<T> get(Long id, Function<Long, Optional<T>> loader) {
+        if (id == null) {
+            return loader.apply(null);
+        }
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Whether the id is cached; not counted as a hit or miss, so existence checks do not skew the statistics.
+     */
+    public boolean contains(Long id) {
+        return id != null && cache.asMap().containsKey(id);
+    }
+
+    public void invalidate(Long id) {
+        if (id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    public void invalidateAll(Iterable<Long> ids) {
+        cache.invalidateAll(ids);
+    }
+
+    public CacheStatistics statistics() {
+        // Eviction runs asynchronously; finish pending maintenance so size and evictions are current
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        return new CacheStatistics(name, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.evictionWeight(), stats.hitRate());
+    }
+
+    /**
+     * Rough heap footprint of a string field: object header plus two bytes per char.
+     */
+    static int weightOf(String value) {
+        return value == null ? 0 : 40 + 2 * value.length();
+    }
+}
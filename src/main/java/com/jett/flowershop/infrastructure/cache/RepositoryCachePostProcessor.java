@@ -0,0 +1,51 @@
+package com.jett.flowershop.infrastructure.cache;
+
+import com.jett.flowershop.domain.entity.Category;
+import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.domain.repository.CategoryRepository;
+import com.jett.flowershop.domain.repository.FlowerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps whichever FlowerRepository/CategoryRepository bean is active (in-memory or JPA)
+ * in its caching decorator, so services keep depending on the domain interfaces only.
+ *
+ * Enabled with flowershop.cache.enabled=true; mainly useful with flowershop.catalog.store=jpa,
+ * where every uncached findById is a database round trip.
+ */
+@Component
+@ConditionalOnProperty(name = "flowershop.cache.enabled", havingValue = "true")
+public class RepositoryCachePostProcessor implements BeanPostProcessor {
+
+    private static final long MB = 1024L * 1024L;
+
+    private final RepositoryCacheRegistry registry;
+    private final long flowerMaxWeight;
+    private final long categoryMaxWeight;
+
+    public RepositoryCachePostProcessor(RepositoryCacheRegistry registry,
+                                        @Value("${flowershop.cache.flowers.max-weight-mb:64}") long flowerMaxWeightMb,
+                                        @Value("${flowershop.cache.categories.max-weight-mb:4}") long categoryMaxWeightMb) {
+        this.registry = registry;
+        this.flowerMaxWeight = flowerMaxWeightMb * MB;
+        this.categoryMaxWeight = categoryMaxWeightMb * MB;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof FlowerRepository && !(bean instanceof CachingFlowerRepository)) {
+            EntityCache<Flower> cache = new EntityCache<>("flowers", flowerMaxWeight, CachingFlowerRepository::weigh);
+            registry.register(cache);
+            return new CachingFlowerRepository((FlowerRepository) bean, cache);
+        }
+        if (bean instanceof CategoryRepository && !(bean instanceof CachingCategoryRepository)) {
+            EntityCache<Category> cache = new EntityCache<>("categories", categoryMaxWeight, CachingCategoryRepository::weigh);
+            registry.register(cache);
+            return new CachingCategoryRepository((CategoryRepository) bean, cache);
+        }
+        return bean;
+    }
+}
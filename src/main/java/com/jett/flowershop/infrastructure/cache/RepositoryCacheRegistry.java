@@ -0,0 +1,31 @@
+package com.jett.flowershop.infrastructure.cache;
+
+import com.jett.flowershop.domain.query.CacheStatistics;
+import com.jett.flowershop.domain.repository.CacheStatisticsRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps every {@link EntityCache} created at startup so their statistics can be reported.
+ */
+@Component
+public class RepositoryCacheRegistry implements CacheStatisticsRepository {
+
+    private final List<EntityCache<?>> caches = new CopyOnWriteArrayList<>();
+
+    public void register(EntityCache<?> cache) {
+        caches.add(cache);
+    }
+
+    @Override
+    public List<CacheStatistics> findAll() {
+        List<CacheStatistics> statistics = new ArrayList<>(caches.size());
+        for (EntityCache<?> cache : caches) {
+            statistics.add(cache.statistics());
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,278 @@
+package com.jett.flowershop.infrastructure.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of (type, id, payload) records in memory-mapped segment files.
+ *
+ * Record layout: int payloadLength | byte type | long id | payload | int crc32.
+ * Segments are pre-sized and zero-filled, so a zero length marks the end of the data;
+ * a record whose length or checksum does not add up is a torn write and ends the log.
+ *
+ * Appends only copy bytes into the mapping. Durability comes from {@link #sync}, which does
+ * group commit: the first caller forces the mapping for every record written so far, and
+ * callers whose record was covered by that force return without another fsync.
+ *
+ * Segments before a snapshot's starting segment are no longer needed and can be deleted
+ * with {@link #deleteSegmentsBefore}; {@link #roll} seals the current segment to start one.
+ *
+ * Rules:
+ * - Appends are serialized internally; sync may be called from any thread
+ * - Records must fit in one segment
+ */
+public class AppendLog implements Closeable {
+
+    public static final byte PUT = 1;
+    public static final byte DELETE = 2;
+
+    private static final int HEADER = 4 + 1 + 8;
+    private static final int TRAILER = 4;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(.+)-(\\d{10})\\.log");
+
+    private final Path directory;
+    private final String name;
+    private final int segmentSize;
+    private final boolean fsync;
+
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segment;
+    private long writtenLsn;
+    private volatile long durableLsn;
+
+    /**
+     * Record visitor used during replay.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(byte type, long id, byte[] payload) throws IOException;
+    }
+
+    private AppendLog(Path directory, String name, int segmentSize, boolean fsync) {
+        this.directory = directory;
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Opens the log, replaying every valid record in order, and positions it for appends.
+     */
+    public static AppendLog open(Path directory, String name, int segmentSize, boolean fsync,
+                                 RecordVisitor visitor) throws IOException {
+        return open(directory, name, segmentSize, fsync, 1, visitor);
+    }
+
+    /**
+     * Opens the log, replaying the records of segment firstSegment onwards; older segments
+     * are covered by a snapshot and skipped.
+     */
+    public static AppendLog open(Path directory, String name, int segmentSize, boolean fsync,
+                                 long firstSegment, RecordVisitor visitor) throws IOException {
+        Files.createDirectories(directory);
+        AppendLog log = new AppendLog(directory, name, segmentSize, fsync);
+        List<Long> segments = log.segments();
+        segments.removeIf(number -> number < firstSegment);
+        if (segments.isEmpty()) {
+            log.mapSegment(firstSegment);
+            return log;
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            boolean last = i == segments.size() - 1;
+            log.mapSegment(segments.get(i));
+            log.replaySegment(visitor, last);
+            if (!last) {
+                log.channel.close();
+            }
+        }
+        return log;
+    }
+
+    /**
+     * Appends one record and returns its log sequence number, for {@link #sync}.
+     */
+    public long append(byte type, long id, byte[] payload) {
+        int size = HEADER + payload.length + TRAILER;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Record of " + size + " bytes exceeds segment size " + segmentSize);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(longBytes(id));
+        crc.update(payload);
+        synchronized (appendLock) {
+            try {
+                if (buffer.remaining() < size) {
+                    rollSegment();
+                }
+                buffer.putInt(payload.length);
+                buffer.put(type);
+                buffer.putLong(id);
+                buffer.put(payload);
+                buffer.putInt((int) crc.getValue());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot append to log " + name, e);
+            }
+            return ++writtenLsn;
+        }
+    }
+
+    /**
+     * Blocks until the record with the given sequence number is on disk.
+     */
+    public void sync(long lsn) {
+        if (!fsync || durableLsn >= lsn) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableLsn >= lsn) {
+                // A concurrent caller's force already covered this record
+                return;
+            }
+            MappedByteBuffer current;
+            long target;
+            synchronized (appendLock) {
+                current = buffer;
+                target = writtenLsn;
+            }
+            current.force();
+            durableLsn = target;
+        }
+    }
+
+    /**
+     * Seals the current segment and starts the next one.
+     *
+     * @return number of the new segment; every earlier record is in a lower-numbered segment
+     */
+    public long roll() {
+        synchronized (appendLock) {
+            try {
+                rollSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot roll log " + name, e);
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * Deletes sealed segments numbered below the given one.
+     */
+    public void deleteSegmentsBefore(long number) throws IOException {
+        for (long old : segments()) {
+            if (old < number) {
+                Files.deleteIfExists(segmentPath(old));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            buffer.force();
+            channel.close();
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        // Everything in the old segment must be durable before appends move on
+        buffer.force();
+        channel.close();
+        mapSegment(segment + 1);
+    }
+
+    private void mapSegment(long number) throws IOException {
+        channel = FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), segmentSize);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        segment = number;
+    }
+
+    private void replaySegment(RecordVisitor visitor, boolean last) throws IOException {
+        while (buffer.remaining() >= HEADER + TRAILER) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length == 0 && buffer.get(start + 4) == 0) {
+                buffer.position(start);
+                return;
+            }
+            if (length < 0 || length > buffer.remaining() - 1 - 8 - TRAILER) {
+                truncate(start, last);
+                return;
+            }
+            byte type = buffer.get();
+            long id = buffer.getLong();
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            int checksum = buffer.getInt();
+            CRC32 crc = new CRC32();
+            crc.update(type);
+            crc.update(longBytes(id));
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                truncate(start, last);
+                return;
+            }
+            visitor.visit(type, id, payload);
+            writtenLsn++;
+        }
+    }
+
+    /**
+     * Drops a torn tail: zero-fills from the bad record so later appends start on clean bytes.
+     */
+    private void truncate(int from, boolean last) throws IOException {
+        if (!last) {
+            throw new IOException("Corrupt record in sealed segment " + segment + " of log " + name);
+        }
+        for (int i = from; i < buffer.limit(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.force();
+        buffer.position(from);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%s-%010d.log", name, number));
+    }
+
+    private List<Long> segments() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && matcher.group(1).equals(name)) {
+                    numbers.add(Long.parseLong(matcher.group(2)));
+                }
+            });
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private static byte[] longBytes(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+}
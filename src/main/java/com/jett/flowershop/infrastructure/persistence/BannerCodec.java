@@ -0,0 +1,53 @@
+package com.jett.flowershop.infrastructure.persistence;
+
+import com.jett.flowershop.domain.entity.Banner;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.jett.flowershop.infrastructure.persistence.BinaryFields.*;
+
+/**
+ * Log record of a Banner; field order follows the entity.
+ */
+public class BannerCodec implements RecordCodec<Banner> {
+
+    private static final int VERSION = 1;
+
+    @Override
+    public void encode(Banner banner, DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        writeLong(out, banner.getId());
+        writeString(out, banner.getTitle());
+        writeString(out, banner.getSubtitle());
+        writeString(out, banner.getDescription());
+        writeString(out, banner.getImageUrl());
+        writeString(out, banner.getLinkUrl());
+        writeString(out, banner.getBannerType());
+        writeInt(out, banner.getDisplayOrder());
+        writeBoolean(out, banner.getIsActive());
+        writeDateTime(out, banner.getStartDate());
+        writeDateTime(out, banner.getEndDate());
+        writeDateTime(out, banner.getCreatedAt());
+    }
+
+    @Override
+    public Banner decode(DataInput in) throws IOException {
+        checkVersion(in, VERSION, "banner");
+        Banner banner = new Banner();
+        banner.setId(readLong(in));
+        banner.setTitle(readString(in));
+        banner.setSubtitle(readString(in));
+        banner.setDescription(readString(in));
+        banner.setImageUrl(readString(in));
+        banner.setLinkUrl(readString(in));
+        banner.setBannerType(readString(in));
+        banner.setDisplayOrder(readInt(in));
+        banner.setIsActive(readBoolean(in));
+        banner.setStartDate(readDateTime(in));
+        banner.setEndDate(readDateTime(in));
+        banner.setCreatedAt(readDateTime(in));
+        return banner;
+    }
+}
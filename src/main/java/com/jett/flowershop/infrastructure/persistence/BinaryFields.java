@@ -0,0 +1,117 @@
+package com.jett.flowershop.infrastructure.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact encodings of nullable entity fields, shared by the record codecs.
+ *
+ * Nullable values are prefixed with a presence flag; strings are UTF-8 with an int length
+ * (no 64 KB limit as with writeUTF); timestamps are UTC epoch seconds + nanos.
+ */
+final class BinaryFields {
+
+    private BinaryFields() {
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    static Long readLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    static void writeInt(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    static Integer readInt(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    static void writeBoolean(DataOutput out, Boolean value) throws IOException {
+        out.writeByte(value == null ? -1 : (value ? 1 : 0));
+    }
+
+    static Boolean readBoolean(DataInput in) throws IOException {
+        byte value = in.readByte();
+        return value < 0 ? null : value == 1;
+    }
+
+    static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(unscaled.length);
+        out.write(unscaled);
+        out.writeInt(value.scale());
+    }
+
+    static BigDecimal readDecimal(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), in.readInt());
+    }
+
+    static void writeDateTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    static LocalDateTime readDateTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long seconds = in.readLong();
+        return LocalDateTime.ofEpochSecond(seconds, in.readInt(), ZoneOffset.UTC);
+    }
+
+    static void checkVersion(DataInput in, int expected, String entity) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != expected) {
+            throw new IOException("Unsupported " + entity + " record version: " + version);
+        }
+    }
+}
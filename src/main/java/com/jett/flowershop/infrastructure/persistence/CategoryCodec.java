@@ -0,0 +1,47 @@
+package com.jett.flowershop.infrastructure.persistence;
+
+import com.jett.flowershop.domain.entity.Category;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.jett.flowershop.infrastructure.persistence.BinaryFields.*;
+
+/**
+ * Log record of a Category; field order follows the entity.
+ */
+public class CategoryCodec implements RecordCodec<Category> {
+
+    private static final int VERSION = 1;
+
+    @Override
+    public void encode(Category category, DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        writeLong(out, category.getId());
+        writeString(out, category.getName());
+        writeString(out, category.getDescription());
+        writeString(out, category.getImageUrl());
+        writeInt(out, category.getDisplayOrder());
+        writeBoolean(out, category.getIsFeatured());
+        writeString(out, category.getStatus());
+        writeDateTime(out, category.getCreatedAt());
+        writeDateTime(out, category.getUpdatedAt());
+    }
+
+    @Override
+    public Category decode(DataInput in) throws IOException {
+        checkVersion(in, VERSION, "category");
+        Category category = new Category();
+        category.setId(readLong(in));
+        category.setName(readString(in));
+        category.setDescription(readString(in));
+        category.setImageUrl(readString(in));
+        category.setDisplayOrder(readInt(in));
+        category.setIsFeatured(readBoolean(in));
+        category.setStatus(readString(in));
+        category.setCreatedAt(readDateTime(in));
+        category.setUpdatedAt(readDateTime(in));
+        return category;
+    }
+}
@@ -0,0 +1,61 @@
+package com.jett.flowershop.infrastructure.persistence;
+
+import com.jett.flowershop.domain.entity.Flower;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.jett.flowershop.infrastructure.persistence.BinaryFields.*;
+
+/**
+ * Log record of a Flower; field order follows the entity.
+ */
+public class FlowerCodec implements RecordCodec<Flower> {
+
+    private static final int VERSION = 1;
+
+    @Override
+    public void encode(Flower flower, DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        writeLong(out, flower.getId());
+        writeString(out, flower.getName());
+        writeDecimal(out, flower.getPrice());
+        writeString(out, flower.getDescription());
+        writeString(out, flower.getOccasion());
+        writeString(out, flower.getColor());
+        writeString(out, flower.getImageUrl());
+        writeInt(out, flower.getStockQuantity());
+        writeBoolean(out, flower.getIsFeatured());
+        writeBoolean(out, flower.getIsHot());
+        writeInt(out, flower.getViewCount());
+        writeInt(out, flower.getSoldCount());
+        writeString(out, flower.getStatus());
+        writeLong(out, flower.getCategoryId());
+        writeDateTime(out, flower.getCreatedAt());
+        writeDateTime(out, flower.getUpdatedAt());
+    }
+
+    @Override
+    public Flower decode(DataInput in) throws IOException {
+        checkVersion(in, VERSION, "flower");
+        Flower flower = new Flower();
+        flower.setId(readLong(in));
+        flower.setName(readString(in));
+        flower.setPrice(readDecimal(in));
+        flower.setDescription(readString(in));
+        flower.setOccasion(readString(in));
+        flower.setColor(readString(in));
+        flower.setImageUrl(readString(in));
+        flower.setStockQuantity(readInt(in));
+        flower.setIsFeatured(readBoolean(in));
+        flower.setIsHot(readBoolean(in));
+        flower.setViewCount(readInt(in));
+        flower.setSoldCount(readInt(in));
+        flower.setStatus(readString(in));
+        flower.setCategoryId(readLong(in));
+        flower.setCreatedAt(readDateTime(in));
+        flower.setUpdatedAt(readDateTime(in));
+        return flower;
+    }
+}
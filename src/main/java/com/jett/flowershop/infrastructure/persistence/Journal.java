@@ -0,0 +1,221 @@
+package com.jett.flowershop.infrastructure.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Typed view of an {@link AppendLog} for one repository: id -> latest entity.
+ *
+ * A repository replays {@link #recovered()} into its map on startup, then records every
+ * mutation with put/delete and waits for durability with {@link #sync} outside its own lock,
+ * so concurrent writers share one fsync.
+ *
+ * {@link #compact()} bounds startup replay: it rolls the log to a new segment, writes the
+ * repository's live map to a snapshot named after that segment and deletes the older segments.
+ * The map is read while writers keep going, so the snapshot may already contain changes that
+ * are also in the new segment; replaying them again is harmless because every record carries
+ * the entity's full state (or a delete). Startup loads the newest snapshot plus the log tail.
+ *
+ * The journal also tracks the highest id ever put or deleted and stores it in each snapshot,
+ * so {@link #nextId()} still skips ids whose records were compacted away.
+ *
+ * Rules:
+ * - put/delete must be called in the same order the repository applies the changes
+ * - {@link #inMemory()} keeps nothing, for tests and storage-disabled runs
+ */
+public class Journal<T> implements Closeable {
+
+    private static final Journal<?> IN_MEMORY = new Journal<>(null, null, null, null, Map.of(), 0, 0);
+
+    private final AppendLog log;
+    private final RecordCodec<T> codec;
+    private final Path directory;
+    private final String name;
+    private Map<Long, T> recovered;
+    private final AtomicLong recordsSinceSnapshot;
+    private final AtomicLong highestId;
+    private volatile Map<Long, T> live;
+
+    private Journal(AppendLog log, RecordCodec<T> codec, Path directory, String name,
+                    Map<Long, T> recovered, long tailRecords, long highestId) {
+        this.log = log;
+        this.codec = codec;
+        this.directory = directory;
+        this.name = name;
+        this.recovered = recovered;
+        this.recordsSinceSnapshot = new AtomicLong(tailRecords);
+        this.highestId = new AtomicLong(highestId);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Journal<T> inMemory() {
+        return (Journal<T>) IN_MEMORY;
+    }
+
+    public static <T> Journal<T> open(Path directory, String name, RecordCodec<T> codec,
+                                      int segmentSize, boolean fsync) throws IOException {
+        Map<Long, T> state = new LinkedHashMap<>();
+        long firstSegment = 1;
+        long[] highestId = {0};
+        List<Long> snapshots = SnapshotFile.list(directory, name);
+        if (!snapshots.isEmpty()) {
+            firstSegment = snapshots.get(snapshots.size() - 1);
+            highestId[0] = SnapshotFile.read(SnapshotFile.path(directory, name, firstSegment),
+                    (id, payload) -> state.put(id, decode(codec, payload)));
+        }
+
+        long[] tailRecords = {0};
+        AppendLog log = AppendLog.open(directory, name, segmentSize, fsync, firstSegment, (type, id, payload) -> {
+            if (type == AppendLog.PUT) {
+                state.put(id, decode(codec, payload));
+            } else {
+                state.remove(id);
+            }
+            highestId[0] = Math.max(highestId[0], id);
+            tailRecords[0]++;
+        });
+
+        Journal<T> journal = new Journal<>(log, codec, directory, name,
+                Collections.unmodifiableMap(state), tailRecords[0], highestId[0]);
+        // A crash while snapshotting leaves a temporary file, or files the snapshot already covers
+        Files.deleteIfExists(directory.resolve(name + ".snap.tmp"));
+        journal.deleteObsolete(firstSegment);
+        return journal;
+    }
+
+    /**
+     * Entities loaded from disk when the journal was opened, in first-write order.
+     * Handed over once so the journal does not keep a second copy of the map.
+     */
+    public synchronized Map<Long, T> recovered() {
+        Map<Long, T> entities = recovered;
+        recovered = Map.of();
+        return entities;
+    }
+
+    /**
+     * First id a repository may hand out: one past every id ever recorded, deleted ones
+     * included, so an id is never reused even after its records were compacted away.
+     */
+    public long nextId() {
+        return highestId.get() + 1;
+    }
+
+    /**
+     * Registers the repository's live map, which {@link #compact()} snapshots.
+     */
+    public void attach(Map<Long, T> live) {
+        if (log != null) {
+            this.live = live;
+        }
+    }
+
+    /**
+     * Records the entity's current state.
+     *
+     * @return sequence number to pass to {@link #sync}
+     */
+    public long put(long id, T entity) {
+        if (log == null) {
+            return 0;
+        }
+        recordsSinceSnapshot.incrementAndGet();
+        highestId.accumulateAndGet(id, Math::max);
+        return log.append(AppendLog.PUT, id, encode(entity));
+    }
+
+    /**
+     * Records a delete.
+     *
+     * @return sequence number to pass to {@link #sync}
+     */
+    public long delete(long id) {
+        if (log == null) {
+            return 0;
+        }
+        recordsSinceSnapshot.incrementAndGet();
+        highestId.accumulateAndGet(id, Math::max);
+        return log.append(AppendLog.DELETE, id, new byte[0]);
+    }
+
+    /**
+     * Waits until the record with the given sequence number is durable.
+     */
+    public void sync(long lsn) {
+        if (log != null) {
+            log.sync(lsn);
+        }
+    }
+
+    /**
+     * Number of records startup would replay on top of the newest snapshot.
+     */
+    public long recordsSinceSnapshot() {
+        return recordsSinceSnapshot.get();
+    }
+
+    /**
+     * Snapshots the live map and drops the log segments it covers. Writers are never blocked.
+     *
+     * @return number of entities in the snapshot, or -1 if there is nothing to snapshot
+     */
+    public synchronized long compact() throws IOException {
+        Map<Long, T> source = live;
+        if (log == null || source == null) {
+            return -1;
+        }
+        // Records from here on land in the new segment and are replayed after the snapshot
+        long segment = log.roll();
+        recordsSinceSnapshot.set(0);
+        // Read after the roll, so it covers every id in the segments this snapshot replaces
+        long written = SnapshotFile.write(directory, name, segment, highestId.get(), sink -> {
+            for (Map.Entry<Long, T> entry : source.entrySet()) {
+                sink.visit(entry.getKey(), encode(entry.getValue()));
+            }
+        });
+        deleteObsolete(segment);
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    private void deleteObsolete(long firstSegment) throws IOException {
+        log.deleteSegmentsBefore(firstSegment);
+        for (long snapshot : SnapshotFile.list(directory, name)) {
+            if (snapshot < firstSegment) {
+                Files.deleteIfExists(SnapshotFile.path(directory, name, snapshot));
+            }
+        }
+    }
+
+    private byte[] encode(T entity) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            codec.encode(entity, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static <T> T decode(RecordCodec<T> codec, byte[] payload) throws IOException {
+        return codec.decode(new DataInputStream(new ByteArrayInputStream(payload)));
+    }
+}
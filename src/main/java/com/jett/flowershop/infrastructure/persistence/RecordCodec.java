@@ -0,0 +1,19 @@
+package com.jett.flowershop.infrastructure.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary form of one entity in the append log.
+ *
+ * Rules:
+ * - Every record starts with a format version byte so fields can be added later
+ * - decode must read exactly what encode wrote, in the same order
+ */
+public interface RecordCodec<T> {
+
+    void encode(T entity, DataOutput out) throws IOException;
+
+    T decode(DataInput in) throws IOException;
+}
@@ -0,0 +1,51 @@
+package com.jett.flowershop.infrastructure.persistence;
+
+import com.jett.flowershop.domain.entity.Review;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.jett.flowershop.infrastructure.persistence.BinaryFields.*;
+
+/**
+ * Log record of a Review; field order follows the entity.
+ */
+public class ReviewCodec implements RecordCodec<Review> {
+
+    private static final int VERSION = 1;
+
+    @Override
+    public void encode(Review review, DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        writeLong(out, review.getId());
+        writeString(out, review.getCustomerName());
+        writeString(out, review.getCustomerEmail());
+        writeString(out, review.getCustomerAvatar());
+        writeInt(out, review.getRating());
+        writeString(out, review.getComment());
+        writeLong(out, review.getFlowerId());
+        writeBoolean(out, review.getIsFeatured());
+        writeBoolean(out, review.getIsApproved());
+        writeString(out, review.getStatus());
+        writeDateTime(out, review.getCreatedAt());
+    }
+
+    @Override
+    public Review decode(DataInput in) throws IOException {
+        checkVersion(in, VERSION, "review");
+        Review review = new Review();
+        review.setId(readLong(in));
+        review.setCustomerName(readString(in));
+        review.setCustomerEmail(readString(in));
+        review.setCustomerAvatar(readString(in));
+        review.setRating(readInt(in));
+        review.setComment(readString(in));
+        review.setFlowerId(readLong(in));
+        review.setIsFeatured(readBoolean(in));
+        review.setIsApproved(readBoolean(in));
+        review.setStatus(readString(in));
+        review.setCreatedAt(readDateTime(in));
+        return review;
+    }
+}
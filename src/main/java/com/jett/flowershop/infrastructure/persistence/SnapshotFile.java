@@ -0,0 +1,149 @@
+package com.jett.flowershop.infrastructure.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Point-in-time image of one repository, named after the first log segment it does not cover.
+ *
+ * Layout: int magic | (int length | long id | payload)* | int -1 | long count | long highestId | int crc32.
+ * highestId is the largest id the repository ever used, including deleted ones, so recovery
+ * never hands out an id again after the records that used it were compacted away.
+ * The file is written under a temporary name, fsynced and renamed, so a snapshot that exists
+ * under its final name is always complete.
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x464C5331; // "FLS1"
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("(.+)-(\\d{10})\\.snap");
+
+    @FunctionalInterface
+    interface EntryVisitor {
+        void visit(long id, byte[] payload) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface EntrySource {
+        void forEach(EntryVisitor sink) throws IOException;
+    }
+
+    private SnapshotFile() {
+    }
+
+    static Path path(Path directory, String name, long segment) {
+        return directory.resolve(String.format("%s-%010d.snap", name, segment));
+    }
+
+    /**
+     * Segment numbers of the complete snapshots in the directory, oldest first.
+     */
+    static List<Long> list(Path directory, String name) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return numbers;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SNAPSHOT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && matcher.group(1).equals(name)) {
+                    numbers.add(Long.parseLong(matcher.group(2)));
+                }
+            });
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    /**
+     * Writes every entry of the source and atomically publishes the file.
+     *
+     * @return number of entries written
+     */
+    static long write(Path directory, String name, long segment, long highestId, EntrySource source) throws IOException {
+        Path temporary = directory.resolve(name + ".snap.tmp");
+        CRC32 crc = new CRC32();
+        long[] count = {0};
+        try (OutputStream file = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(
+                     new CheckedOutputStream(new BufferedOutputStream(file, BUFFER_SIZE), crc))) {
+            out.writeInt(MAGIC);
+            source.forEach((id, payload) -> {
+                out.writeInt(payload.length);
+                out.writeLong(id);
+                out.write(payload);
+                count[0]++;
+            });
+            out.writeInt(-1);
+            out.writeLong(count[0]);
+            out.writeLong(highestId);
+            out.flush();
+            out.writeInt((int) crc.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, path(directory, name, segment), StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(directory);
+        return count[0];
+    }
+
+    /**
+     * Reads every entry into the visitor, failing if the file is truncated or corrupt.
+     * The file is mapped and checksummed in one pass before any entry is decoded.
+     *
+     * @return the highest id recorded in the snapshot
+     */
+    static long read(Path file, EntryVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 4 + 4 + 8 + 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt snapshot: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().limit((int) size - 4));
+            if (buffer.getInt((int) size - 4) != (int) crc.getValue() || buffer.getInt() != MAGIC) {
+                throw new IOException("Corrupt snapshot: " + file);
+            }
+            long entries = 0;
+            long highestId = 0;
+            int length;
+            while ((length = buffer.getInt()) >= 0) {
+                long id = buffer.getLong();
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                visitor.visit(id, payload);
+                highestId = Math.max(highestId, id);
+                entries++;
+            }
+            if (buffer.getLong() != entries) {
+                throw new IOException("Corrupt snapshot: " + file);
+            }
+            return Math.max(highestId, buffer.getLong());
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        // Makes the rename durable; not every platform allows opening a directory
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+}
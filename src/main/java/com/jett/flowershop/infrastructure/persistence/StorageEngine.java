@@ -0,0 +1,94 @@
+package com.jett.flowershop.infrastructure.persistence;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opens one {@link Journal} per repository under flowershop.storage.directory.
+ *
+ * A scheduled job compacts each journal once its log tail holds at least
+ * flowershop.storage.compaction-min-records records, so startup replays one snapshot
+ * plus a short tail however long the application has been running.
+ *
+ * Rules:
+ * - flowershop.storage.enabled=false keeps every repository in memory only
+ * - Journals are closed after the repositories using them are destroyed
+ */
+@Component
+public class StorageEngine {
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final long compactionMinRecords;
+    private final List<Journal<?>> journals = new ArrayList<>();
+
+    public StorageEngine(@Value("${flowershop.storage.enabled:true}") boolean enabled,
+                         @Value("${flowershop.storage.directory:data}") String directory,
+                         @Value("${flowershop.storage.segment-size-mb:64}") int segmentSizeMb,
+                         @Value("${flowershop.storage.fsync:true}") boolean fsync,
+                         @Value("${flowershop.storage.compaction-min-records:100000}") long compactionMinRecords) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.fsync = fsync;
+        this.compactionMinRecords = compactionMinRecords;
+    }
+
+    public synchronized <T> Journal<T> open(String name, RecordCodec<T> codec) {
+        if (!enabled) {
+            return Journal.inMemory();
+        }
+        try {
+            Journal<T> journal = Journal.open(directory.resolve(name), name, codec, segmentSize, fsync);
+            journals.add(journal);
+            return journal;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open storage for " + name, e);
+        }
+    }
+
+    /**
+     * Snapshots every journal whose log tail has grown past the threshold.
+     */
+    @Scheduled(fixedDelayString = "${flowershop.storage.compaction-interval-ms:60000}")
+    public void compact() {
+        List<Journal<?>> open;
+        synchronized (this) {
+            open = new ArrayList<>(journals);
+        }
+        for (Journal<?> journal : open) {
+            if (journal.recordsSinceSnapshot() < compactionMinRecords) {
+                continue;
+            }
+            try {
+                journal.compact();
+            } catch (IOException e) {
+                // The log is untouched, so nothing is lost; the next run retries
+                System.err.println("Journal compaction failed: " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Journal<?> journal : journals) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close journal: " + e.getMessage());
+            }
+        }
+        journals.clear();
+    }
+}
@@ -2,10 +2,15 @@ package com.jett.flowershop.infrastructure.repository;
 
 import com.jett.flowershop.domain.entity.Banner;
 import com.jett.flowershop.domain.repository.BannerRepository;
+import com.jett.flowershop.infrastructure.persistence.BannerCodec;
+import com.jett.flowershop.infrastructure.persistence.Journal;
+import com.jett.flowershop.infrastructure.persistence.StorageEngine;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
@@ -13,18 +18,59 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * In-memory Banner repository with a prepared list of active banners.
+ *
+ * The active list and the next instant at which it changes are recomputed on every write and
+ * by {@link #refreshActiveBanners}, which the activation scheduler calls at exactly that
+ * instant, so {@link #findActiveBanners()} does no date checks per request.
+ *
+ * Rules:
+ * - A banner is active from its startDate through its endDate inclusive; a missing date is open
+ * - It leaves the list at the first instant after endDate
+ */
 @Repository
 public class BannerRepositoryImpl implements BannerRepository {
 
     private final ConcurrentHashMap<Long, Banner> storage = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
+    private final Object writeLock = new Object();
+    private final Journal<Banner> journal;
+    private volatile List<Banner> activeBanners = List.of();
+    private volatile LocalDateTime nextActivationChange;
+
+    public BannerRepositoryImpl() {
+        this(Journal.inMemory());
+    }
+
+    @Autowired
+    public BannerRepositoryImpl(StorageEngine storageEngine) {
+        this(storageEngine.open("banners", new BannerCodec()));
+    }
+
+    BannerRepositoryImpl(Journal<Banner> journal) {
+        this.journal = journal;
+        journal.attach(storage);
+        for (Banner banner : journal.recovered().values()) {
+            storage.put(banner.getId(), banner);
+        }
+        idGenerator.set(journal.nextId());
+        refreshActiveBanners(LocalDateTime.now());
+    }
 
     @Override
     public Banner save(Banner banner) {
-        if (banner.getId() == null) {
-            banner.setId(idGenerator.getAndIncrement());
+        long lsn;
+        // Map and journal order must agree for the same id
+        synchronized (writeLock) {
+            if (banner.getId() == null) {
+                banner.setId(idGenerator.getAndIncrement());
+            }
+            storage.put(banner.getId(), banner);
+            lsn = journal.put(banner.getId(), banner);
+            refreshActive(LocalDateTime.now());
         }
-        storage.put(banner.getId(), banner);
+        journal.sync(lsn);
         return banner;
     }
 
@@ -42,16 +88,19 @@ public class BannerRepositoryImpl implements BannerRepository {
 
     @Override
     public List<Banner> findActiveBanners() {
-        LocalDateTime now = LocalDateTime.now();
-        return storage.values().stream()
-                .filter(banner -> banner.getIsActive() != null && banner.getIsActive())
-                .filter(banner -> {
-                    boolean afterStart = banner.getStartDate() == null || !now.isBefore(banner.getStartDate());
-                    boolean beforeEnd = banner.getEndDate() == null || !now.isAfter(banner.getEndDate());
-                    return afterStart && beforeEnd;
-                })
-                .sorted(Comparator.comparing(Banner::getDisplayOrder))
-                .collect(Collectors.toList());
+        return activeBanners;
+    }
+
+    @Override
+    public void refreshActiveBanners(LocalDateTime now) {
+        synchronized (writeLock) {
+            refreshActive(now);
+        }
+    }
+
+    @Override
+    public Optional<LocalDateTime> findNextActivationChange() {
+        return Optional.ofNullable(nextActivationChange);
     }
 
     @Override
@@ -65,11 +114,48 @@ public class BannerRepositoryImpl implements BannerRepository {
 
     @Override
     public void deleteById(Long id) {
-        storage.remove(id);
+        long lsn;
+        synchronized (writeLock) {
+            storage.remove(id);
+            lsn = journal.delete(id);
+            refreshActive(LocalDateTime.now());
+        }
+        journal.sync(lsn);
     }
 
     @Override
     public boolean existsById(Long id) {
         return storage.containsKey(id);
     }
+
+    // Called under writeLock so a refresh never publishes a list older than the last write
+    private void refreshActive(LocalDateTime now) {
+        List<Banner> active = new ArrayList<>();
+        LocalDateTime next = null;
+        for (Banner banner : storage.values()) {
+            if (banner.getIsActive() == null || !banner.getIsActive()) {
+                continue;
+            }
+            LocalDateTime start = banner.getStartDate();
+            LocalDateTime end = banner.getEndDate();
+            boolean afterStart = start == null || !now.isBefore(start);
+            boolean beforeEnd = end == null || !now.isAfter(end);
+            if (afterStart && beforeEnd) {
+                active.add(banner);
+            }
+            if (start != null && start.isAfter(now)) {
+                next = earlier(next, start);
+            }
+            if (end != null && beforeEnd) {
+                next = earlier(next, end.plusNanos(1));
+            }
+        }
+        active.sort(Comparator.comparing(Banner::getDisplayOrder));
+        activeBanners = Collections.unmodifiableList(active);
+        nextActivationChange = next;
+    }
+
+    private static LocalDateTime earlier(LocalDateTime current, LocalDateTime candidate) {
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
 }
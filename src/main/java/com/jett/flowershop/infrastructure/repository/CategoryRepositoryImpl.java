@@ -2,6 +2,10 @@ package com.jett.flowershop.infrastructure.repository;
 
 import com.jett.flowershop.domain.entity.Category;
 import com.jett.flowershop.domain.repository.CategoryRepository;
+import com.jett.flowershop.infrastructure.persistence.CategoryCodec;
+import com.jett.flowershop.infrastructure.persistence.Journal;
+import com.jett.flowershop.infrastructure.persistence.StorageEngine;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
@@ -15,13 +19,39 @@ public class CategoryRepositoryImpl implements CategoryRepository {
 
     private final ConcurrentHashMap<Long, Category> storage = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
+    private final Object writeLock = new Object();
+    private final Journal<Category> journal;
+
+    public CategoryRepositoryImpl() {
+        this(Journal.inMemory());
+    }
+
+    @Autowired
+    public CategoryRepositoryImpl(StorageEngine storageEngine) {
+        this(storageEngine.open("categories", new CategoryCodec()));
+    }
+
+    CategoryRepositoryImpl(Journal<Category> journal) {
+        this.journal = journal;
+        journal.attach(storage);
+        for (Category category : journal.recovered().values()) {
+            storage.put(category.getId(), category);
+        }
+        idGenerator.set(journal.nextId());
+    }
 
     @Override
     public Category save(Category category) {
-        if (category.getId() == null) {
-            category.setId(idGenerator.getAndIncrement());
+        long lsn;
+        // Map and journal order must agree for the same id
+        synchronized (writeLock) {
+            if (category.getId() == null) {
+                category.setId(idGenerator.getAndIncrement());
+            }
+            storage.put(category.getId(), category);
+            lsn = journal.put(category.getId(), category);
         }
-        storage.put(category.getId(), category);
+        journal.sync(lsn);
         return category;
     }
 
@@ -37,7 +67,12 @@ public class CategoryRepositoryImpl implements CategoryRepository {
 
     @Override
     public void deleteById(Long id) {
-        storage.remove(id);
+        long lsn;
+        synchronized (writeLock) {
+            storage.remove(id);
+            lsn = journal.delete(id);
+        }
+        journal.sync(lsn);
     }
 
     @Override
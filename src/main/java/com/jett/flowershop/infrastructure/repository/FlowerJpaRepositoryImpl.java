@@ -0,0 +1,431 @@
+package com.jett.flowershop.infrastructure.repository;
+
+import com.jett.flowershop.common.util.TextNormalizer;
+import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.domain.query.CursorPage;
+import com.jett.flowershop.domain.query.FlowerFacetCounts;
+import com.jett.flowershop.domain.query.FlowerQuery;
+import com.jett.flowershop.domain.query.FlowerSort;
+import com.jett.flowershop.domain.query.PageResult;
+import com.jett.flowershop.domain.repository.FlowerRepository;
+import com.jett.flowershop.infrastructure.repository.jpa.FlowerEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Database-backed Flower repository, selected with flowershop.catalog.store=jpa.
+ *
+ * The catalog lives in the "flowers" table instead of the heap, so it can outgrow memory
+ * and survives restarts with a file or server database. Filters compare normalized key
+ * columns that carry database indexes (see {@link FlowerEntity}); orderings and limits
+ * (best sellers, pages, type-ahead) are pushed down as ORDER BY ... LIMIT.
+ *
+ * Writes go through Hibernate with JDBC batching (hibernate.jdbc.batch_size); view-count
+ * deltas are one JDBC batch of relative UPDATEs so concurrent flushes never lose views.
+ *
+ * Rules:
+ * - Returned Flowers are detached copies; changes only reach the database through save
+ * - save writes viewCount only when it inserts the row; later changes go through addViewCounts
+ * - Substring searches (name, keyword) use LIKE '%term%', which cannot use an index
+ */
+@Repository
+@ConditionalOnProperty(name = "flowershop.catalog.store", havingValue = "jpa")
+@Transactional(readOnly = true)
+public class FlowerJpaRepositoryImpl implements FlowerRepository {
+
+    // Matches hibernate.jdbc.batch_size: flush and clear the persistence context per batch
+    private static final int BATCH_SIZE = 50;
+
+    private static final String FACET_OCCASION = "occasion";
+    private static final String FACET_COLOR = "color";
+    private static final String FACET_CATEGORY = "category";
+    private static final String FACET_PRICE = "price";
+
+    private static final String ACTIVE = "ACTIVE";
+    private static final String SELECT = "SELECT f FROM FlowerEntity f";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public FlowerJpaRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public Flower save(Flower flower) {
+        write(flower);
+        return flower;
+    }
+
+    @Override
+    @Transactional
+    public List<Flower> saveAll(List<Flower> flowers) {
+        for (int i = 0; i < flowers.size(); i++) {
+            write(flowers.get(i));
+            if ((i + 1) % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return flowers;
+    }
+
+    @Override
+    @Transactional
+    public void addViewCounts(Map<Long, Long> deltas) {
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+            batch.add(new Object[]{delta.getValue(), delta.getKey()});
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE flowers SET view_count = LEAST(COALESCE(view_count, 0) + ?, 2147483647) WHERE id = ?",
+                batch);
+    }
+
+    @Override
+    public Optional<Flower> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entityManager.find(FlowerEntity.class, id)).map(FlowerJpaRepositoryImpl::toDomain);
+    }
+
+    @Override
+    public List<Flower> findAll() {
+        return list(entityManager.createQuery(SELECT + " ORDER BY f.id", FlowerEntity.class));
+    }
+
+    @Override
+    @Transactional
+    public void deleteById(Long id) {
+        entityManager.createQuery("DELETE FROM FlowerEntity f WHERE f.id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return id != null && entityManager.createQuery(
+                        "SELECT COUNT(f) FROM FlowerEntity f WHERE f.id = :id", Long.class)
+                .setParameter("id", id)
+                .getSingleResult() > 0;
+    }
+
+    @Override
+    public List<Flower> autocomplete(String prefix, int limit) {
+        if (prefix == null || prefix.trim().isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        // A prefix LIKE can use the folded-name index
+        return list(entityManager.createQuery(SELECT
+                                + " WHERE f.foldedName LIKE :prefix ESCAPE '!' AND f.status = :active"
+                                + " ORDER BY f.soldCount DESC, f.viewCount DESC, f.id",
+                        FlowerEntity.class)
+                .setParameter("prefix", escapeLike(TextNormalizer.fold(prefix.trim())) + "%")
+                .setParameter("active", ACTIVE)
+                .setMaxResults(limit));
+    }
+
+    @Override
+    public PageResult<Flower> query(FlowerQuery query) {
+        Criteria criteria = new Criteria(query);
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = criteria.where(null, params);
+
+        long total = bind(entityManager.createQuery(
+                "SELECT COUNT(f) FROM FlowerEntity f" + where, Long.class), params).getSingleResult();
+        List<Flower> items = new ArrayList<>();
+        int size = Math.max(0, query.getSize());
+        long offset = (long) Math.max(0, query.getPage()) * size;
+        if (size > 0 && offset < total) {
+            items = list(bind(entityManager.createQuery(
+                            SELECT + where + " ORDER BY " + orderBy(query.getSort()), FlowerEntity.class), params)
+                    .setFirstResult((int) offset)
+                    .setMaxResults(size));
+        }
+        return new PageResult<>(items, query.getPage(), query.getSize(), total);
+    }
+
+    @Override
+    public CursorPage<Flower> findPage(FlowerQuery query, Long cursor, int limit) {
+        Criteria criteria = new Criteria(query);
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = criteria.where(null, params);
+        if (cursor != null) {
+            where += (where.isEmpty() ? " WHERE" : " AND") + " f.id > :cursor";
+            params.put("cursor", cursor);
+        }
+        // One extra row tells whether another page exists
+        List<Flower> rows = list(bind(entityManager.createQuery(
+                        SELECT + where + " ORDER BY f.id", FlowerEntity.class), params)
+                .setMaxResults(limit + 1));
+        boolean more = rows.size() > limit;
+        List<Flower> items = more ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        Long nextCursor = more && !items.isEmpty() ? items.get(items.size() - 1).getId() : null;
+        return new CursorPage<>(items, nextCursor, limit);
+    }
+
+    @Override
+    public FlowerFacetCounts facetCounts(FlowerQuery query) {
+        Criteria criteria = new Criteria(query);
+        Map<String, Object> params = new LinkedHashMap<>();
+        long total = bind(entityManager.createQuery(
+                "SELECT COUNT(f) FROM FlowerEntity f" + criteria.where(null, params), Long.class), params)
+                .getSingleResult();
+
+        // Each facet is counted under every selection except its own
+        Map<String, Long> occasions = new LinkedHashMap<>();
+        groupCounts(criteria, FACET_OCCASION, "f.occasionKey")
+                .forEach((key, count) -> occasions.put((String) key, count));
+        Map<String, Long> colors = new LinkedHashMap<>();
+        groupCounts(criteria, FACET_COLOR, "f.colorKey")
+                .forEach((key, count) -> colors.put((String) key, count));
+        Map<Long, Long> categories = new LinkedHashMap<>();
+        groupCounts(criteria, FACET_CATEGORY, "f.categoryId")
+                .forEach((key, count) -> categories.put((Long) key, count));
+        Map<String, Long> priceBuckets = new LinkedHashMap<>();
+        groupCounts(criteria, FACET_PRICE, "f.priceBucket")
+                .forEach((key, count) -> priceBuckets.put(PriceBuckets.label((Integer) key), count));
+        return new FlowerFacetCounts(total, occasions, colors, categories, priceBuckets);
+    }
+
+    @Override
+    public List<Flower> findHotFlowers() {
+        return list(entityManager.createQuery(SELECT
+                        + " WHERE f.status = :active AND f.isHot = TRUE ORDER BY f.viewCount DESC, f.id", FlowerEntity.class)
+                .setParameter("active", ACTIVE));
+    }
+
+    @Override
+    public List<Flower> findFeaturedFlowers() {
+        return list(entityManager.createQuery(SELECT
+                        + " WHERE f.status = :active AND f.isFeatured = TRUE ORDER BY f.viewCount DESC, f.id", FlowerEntity.class)
+                .setParameter("active", ACTIVE));
+    }
+
+    @Override
+    public List<Flower> findBestSelling(int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Served by the (status, sold_count) index as ORDER BY ... LIMIT
+        return list(entityManager.createQuery(SELECT
+                        + " WHERE f.status = :active ORDER BY f.soldCount DESC, f.id", FlowerEntity.class)
+                .setParameter("active", ACTIVE)
+                .setMaxResults(limit));
+    }
+
+    /**
+     * Inserts or updates the row; new ids come from the sequence without a round trip per row.
+     * An update leaves view_count alone, so a copy read before a view flush cannot undo it.
+     */
+    private void write(Flower flower) {
+        FlowerEntity entity = flower.getId() == null ? null : entityManager.find(FlowerEntity.class, flower.getId());
+        if (entity == null) {
+            entity = new FlowerEntity();
+            copy(flower, entity);
+            entity.setViewCount(flower.getViewCount());
+            entityManager.persist(entity);
+            flower.setId(entity.getId());
+        } else {
+            copy(flower, entity);
+        }
+    }
+
+    /**
+     * value -> count for one facet column under every criterion except the facet's own.
+     */
+    private Map<Object, Long> groupCounts(Criteria criteria, String facet, String column) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = criteria.where(facet, params);
+        where += (where.isEmpty() ? " WHERE " : " AND ") + column + " IS NOT NULL";
+        List<Object[]> rows = bind(entityManager.createQuery("SELECT " + column + ", COUNT(f) FROM FlowerEntity f"
+                + where + " GROUP BY " + column + " ORDER BY " + column, Object[].class), params).getResultList();
+        Map<Object, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            counts.put(row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private static String orderBy(FlowerSort sort) {
+        switch (sort) {
+            case PRICE_ASC:
+                return "f.price ASC NULLS LAST, f.id";
+            case PRICE_DESC:
+                return "f.price DESC NULLS LAST, f.id";
+            case BEST_SELLING:
+                return "f.soldCount DESC, f.id";
+            case MOST_VIEWED:
+                return "f.viewCount DESC, f.id";
+            case NEWEST:
+                return "f.createdAt DESC NULLS LAST, f.id DESC";
+            case ID:
+            default:
+                return "f.id";
+        }
+    }
+
+    private static <Q extends TypedQuery<?>> Q bind(Q query, Map<String, Object> params) {
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    private static List<Flower> list(TypedQuery<FlowerEntity> query) {
+        List<FlowerEntity> rows = query.getResultList();
+        List<Flower> result = new ArrayList<>(rows.size());
+        for (FlowerEntity row : rows) {
+            result.add(toDomain(row));
+        }
+        return result;
+    }
+
+    private static void copy(Flower flower, FlowerEntity entity) {
+        entity.setName(flower.getName());
+        entity.setNameKey(normalizeKey(flower.getName()));
+        entity.setFoldedName(TextNormalizer.fold(flower.getName()));
+        entity.setPrice(flower.getPrice());
+        entity.setPriceBucket(PriceBuckets.of(flower.getPrice()));
+        entity.setDescription(flower.getDescription());
+        entity.setOccasion(flower.getOccasion());
+        entity.setOccasionKey(normalizeKey(flower.getOccasion()));
+        entity.setColor(flower.getColor());
+        entity.setColorKey(normalizeKey(flower.getColor()));
+        entity.setImageUrl(flower.getImageUrl());
+        entity.setStockQuantity(flower.getStockQuantity());
+        entity.setIsFeatured(flower.getIsFeatured());
+        entity.setIsHot(flower.getIsHot());
+        entity.setSoldCount(flower.getSoldCount());
+        entity.setStatus(flower.getStatus());
+        entity.setStatusKey(normalizeKey(flower.getStatus()));
+        entity.setCategoryId(flower.getCategoryId());
+        entity.setCreatedAt(flower.getCreatedAt());
+        entity.setUpdatedAt(flower.getUpdatedAt());
+    }
+
+    private static Flower toDomain(FlowerEntity entity) {
+        Flower flower = new Flower();
+        flower.setId(entity.getId());
+        flower.setName(entity.getName());
+        flower.setPrice(entity.getPrice());
+        flower.setDescription(entity.getDescription());
+        flower.setOccasion(entity.getOccasion());
+        flower.setColor(entity.getColor());
+        flower.setImageUrl(entity.getImageUrl());
+        flower.setStockQuantity(entity.getStockQuantity());
+        flower.setIsFeatured(entity.getIsFeatured());
+        flower.setIsHot(entity.getIsHot());
+        flower.setViewCount(entity.getViewCount());
+        flower.setSoldCount(entity.getSoldCount());
+        flower.setStatus(entity.getStatus());
+        flower.setCategoryId(entity.getCategoryId());
+        flower.setCreatedAt(entity.getCreatedAt());
+        flower.setUpdatedAt(entity.getUpdatedAt());
+        return flower;
+    }
+
+    private static String contains(String term) {
+        return "%" + escapeLike(term) + "%";
+    }
+
+    // '!' is the ESCAPE character of every LIKE above
+    private static String escapeLike(String term) {
+        return term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    private static String normalizeKey(String value) {
+        return value == null ? null : value.toLowerCase();
+    }
+
+    /**
+     * Normalized criteria of a {@link FlowerQuery}, rendered as a JPQL WHERE clause.
+     */
+    private static final class Criteria {
+        private final String occasionKey;
+        private final String colorKey;
+        private final String statusKey;
+        private final Long categoryId;
+        private final String keyword;
+        private final String name;
+        private final boolean ignoreAccents;
+        private final BigDecimal minPrice;
+        private final BigDecimal maxPrice;
+
+        private Criteria(FlowerQuery query) {
+            this.occasionKey = normalizeKey(trimToNull(query.getOccasion()));
+            this.colorKey = normalizeKey(trimToNull(query.getColor()));
+            this.statusKey = normalizeKey(trimToNull(query.getStatus()));
+            this.categoryId = query.getCategoryId();
+            this.keyword = normalizeKey(trimToNull(query.getKeyword()));
+            this.ignoreAccents = query.isIgnoreAccents();
+            String trimmedName = trimToNull(query.getName());
+            this.name = ignoreAccents ? TextNormalizer.fold(trimmedName) : normalizeKey(trimmedName);
+            this.minPrice = query.getMinPrice();
+            this.maxPrice = query.getMaxPrice();
+        }
+
+        /**
+         * " WHERE ..." over every criterion except the skipped facet (null skips none),
+         * or "" when nothing is filtered. Parameter values are added to params.
+         */
+        private String where(String skipFacet, Map<String, Object> params) {
+            List<String> clauses = new ArrayList<>();
+            if (occasionKey != null && !FACET_OCCASION.equals(skipFacet)) {
+                clauses.add("f.occasionKey = :occasion");
+                params.put("occasion", occasionKey);
+            }
+            if (colorKey != null && !FACET_COLOR.equals(skipFacet)) {
+                clauses.add("f.colorKey = :color");
+                params.put("color", colorKey);
+            }
+            if (categoryId != null && !FACET_CATEGORY.equals(skipFacet)) {
+                clauses.add("f.categoryId = :categoryId");
+                params.put("categoryId", categoryId);
+            }
+            if (!FACET_PRICE.equals(skipFacet)) {
+                if (minPrice != null) {
+                    clauses.add("f.price >= :minPrice");
+                    params.put("minPrice", minPrice);
+                }
+                if (maxPrice != null) {
+                    clauses.add("f.price <= :maxPrice");
+                    params.put("maxPrice", maxPrice);
+                }
+            }
+            if (statusKey != null) {
+                clauses.add("f.statusKey = :status");
+                params.put("status", statusKey);
+            }
+            if (name != null) {
+                clauses.add((ignoreAccents ? "f.foldedName" : "f.nameKey") + " LIKE :name ESCAPE '!'");
+                params.put("name", contains(name));
+            }
+            if (keyword != null) {
+                clauses.add("(f.nameKey LIKE :keyword ESCAPE '!' OR f.occasionKey LIKE :keyword ESCAPE '!')");
+                params.put("keyword", contains(keyword));
+            }
+            return clauses.isEmpty() ? "" : " WHERE " + String.join(" AND ", clauses);
+        }
+    }
+}
@@ -1,30 +1,185 @@
 package com.jett.flowershop.infrastructure.repository;
 
+import com.jett.flowershop.common.util.TextNormalizer;
 import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.domain.query.CursorPage;
+import com.jett.flowershop.domain.query.FlowerFacetCounts;
+import com.jett.flowershop.domain.query.FlowerQuery;
+import com.jett.flowershop.domain.query.FlowerSort;
+import com.jett.flowershop.domain.query.PageResult;
 import com.jett.flowershop.domain.repository.FlowerRepository;
+import com.jett.flowershop.infrastructure.persistence.FlowerCodec;
+import com.jett.flowershop.infrastructure.persistence.Journal;
+import com.jett.flowershop.infrastructure.persistence.StorageEngine;
+import com.jett.flowershop.infrastructure.repository.index.FacetBitmaps;
+import com.jett.flowershop.infrastructure.repository.index.KeyIndex;
+import com.jett.flowershop.infrastructure.repository.index.NGramIndex;
+import com.jett.flowershop.infrastructure.repository.index.PrefixTrie;
+import com.jett.flowershop.infrastructure.repository.index.RangeIndex;
+import com.jett.flowershop.infrastructure.repository.index.RankIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
+/**
+ * In-memory Flower repository.
+ *
+ * Secondary indexes are maintained on save/delete so filter lookups cost O(matches)
+ * instead of a scan over the whole catalog. Entities are mutated in place by the services
+ * before save, so the keys each flower is currently indexed under are tracked separately
+ * in {@link IndexedFlower} and diffed against the new values on every save.
+ *
+ * Every mutation is appended to a {@link Journal} under the write lock and made durable
+ * outside it, so concurrent writers share one fsync; startup replays the journal.
+ *
+ * This is the default catalog store; flowershop.catalog.store=jpa selects
+ * {@link FlowerJpaRepositoryImpl} instead.
+ */
 @Repository
+@ConditionalOnProperty(name = "flowershop.catalog.store", havingValue = "memory", matchIfMissing = true)
 public class FlowerRepositoryImpl implements FlowerRepository {
 
+    // Upper bound on trie entries ranked per autocomplete request
+    private static final int AUTOCOMPLETE_MAX_SCAN = 10_000;
+
+    // Facet dimensions kept as bitmaps for sidebar counts
+    private static final String FACET_OCCASION = "occasion";
+    private static final String FACET_COLOR = "color";
+    private static final String FACET_CATEGORY = "category";
+    private static final String FACET_PRICE = "price";
+    private static final String FACET_STATUS = "status";
+
+    // Most sold first, then most viewed
+    private static final Comparator<Flower> POPULARITY = Comparator
+            .comparingInt((Flower flower) -> countOf(flower.getSoldCount())).reversed()
+            .thenComparing(Comparator.comparingInt((Flower flower) -> countOf(flower.getViewCount())).reversed())
+            .thenComparing(Flower::getId);
+
     private final ConcurrentHashMap<Long, Flower> storage = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
 
+    // Secondary indexes (normalized key -> flower ids)
+    private final ConcurrentHashMap<Long, IndexedFlower> indexed = new ConcurrentHashMap<>();
+    // Every id in ascending order, for keyset pages over the unfiltered catalog
+    private final ConcurrentSkipListSet<Long> idOrder = new ConcurrentSkipListSet<>();
+    private final KeyIndex<String> occasionIndex = new KeyIndex<>();
+    private final KeyIndex<String> colorIndex = new KeyIndex<>();
+    private final KeyIndex<Long> categoryIndex = new KeyIndex<>();
+    private final KeyIndex<String> statusIndex = new KeyIndex<>();
+    private final RangeIndex<BigDecimal> priceIndex = new RangeIndex<>();
+    private final NGramIndex nameGrams = new NGramIndex();
+    private final NGramIndex foldedNameGrams = new NGramIndex();
+    private final NGramIndex occasionGrams = new NGramIndex();
+    private final PrefixTrie nameTrie = new PrefixTrie();
+    private final FacetBitmaps facets = new FacetBitmaps();
+    // Active flowers ranked by soldCount
+    private final RankIndex bestSellers = new RankIndex();
+    // Active hot/featured flowers ranked by viewCount, published as immutable snapshots
+    private final RankIndex hotRanking = new RankIndex();
+    private final RankIndex featuredRanking = new RankIndex();
+    private volatile List<Flower> hotSnapshot = List.of();
+    private volatile List<Flower> featuredSnapshot = List.of();
+    private boolean hotDirty;
+    private boolean featuredDirty;
+    private final Object writeLock = new Object();
+    private final Journal<Flower> journal;
+
+    public FlowerRepositoryImpl() {
+        this(Journal.inMemory());
+    }
+
+    @Autowired
+    public FlowerRepositoryImpl(StorageEngine storageEngine) {
+        this(storageEngine.open("flowers", new FlowerCodec()));
+    }
+
+    FlowerRepositoryImpl(Journal<Flower> journal) {
+        this.journal = journal;
+        journal.attach(storage);
+        synchronized (writeLock) {
+            for (Flower flower : journal.recovered().values()) {
+                storage.put(flower.getId(), flower);
+                reindex(flower);
+            }
+            idGenerator.set(journal.nextId());
+            publishSnapshots();
+        }
+    }
+
     @Override
     public Flower save(Flower flower) {
-        if (flower.getId() == null) {
-            flower.setId(idGenerator.getAndIncrement());
+        long lsn;
+        synchronized (writeLock) {
+            if (flower.getId() == null) {
+                flower.setId(idGenerator.getAndIncrement());
+            }
+            storage.put(flower.getId(), flower);
+            reindex(flower);
+            publishSnapshots();
+            lsn = journal.put(flower.getId(), flower);
         }
-        storage.put(flower.getId(), flower);
+        journal.sync(lsn);
         return flower;
     }
 
+    @Override
+    public List<Flower> saveAll(List<Flower> flowers) {
+        long lsn = 0;
+        synchronized (writeLock) {
+            for (Flower flower : flowers) {
+                if (flower.getId() == null) {
+                    flower.setId(idGenerator.getAndIncrement());
+                }
+                storage.put(flower.getId(), flower);
+                reindex(flower);
+                lsn = journal.put(flower.getId(), flower);
+            }
+            publishSnapshots();
+        }
+        journal.sync(lsn);
+        return flowers;
+    }
+
+    @Override
+    public void addViewCounts(Map<Long, Long> deltas) {
+        long lsn = 0;
+        synchronized (writeLock) {
+            for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+                Flower flower = storage.get(delta.getKey());
+                if (flower == null) {
+                    continue;
+                }
+                long views = (long) countOf(flower.getViewCount()) + delta.getValue();
+                flower.setViewCount((int) Math.min(views, Integer.MAX_VALUE));
+                reindex(flower);
+                lsn = journal.put(flower.getId(), flower);
+            }
+            // One snapshot rebuild per batch rather than per flower
+            publishSnapshots();
+        }
+        journal.sync(lsn);
+    }
+
     @Override
     public Optional<Flower> findById(Long id) {
         return Optional.ofNullable(storage.get(id));
@@ -37,7 +192,14 @@ public class FlowerRepositoryImpl implements FlowerRepository {
 
     @Override
     public void deleteById(Long id) {
-        storage.remove(id);
+        long lsn;
+        synchronized (writeLock) {
+            storage.remove(id);
+            unindex(id);
+            publishSnapshots();
+            lsn = journal.delete(id);
+        }
+        journal.sync(lsn);
     }
 
     @Override
@@ -46,90 +208,574 @@ public class FlowerRepositoryImpl implements FlowerRepository {
     }
 
     @Override
-    public List<Flower> searchByName(String name) {
-        if (name == null || name.trim().isEmpty()) {
+    public List<Flower> autocomplete(String prefix, int limit) {
+        if (prefix == null || prefix.trim().isEmpty() || limit <= 0) {
             return new ArrayList<>();
         }
-        String searchTerm = name.toLowerCase().trim();
-        return storage.values().stream()
-                .filter(flower -> flower.getName() != null && 
-                        flower.getName().toLowerCase().contains(searchTerm))
-                .collect(java.util.stream.Collectors.toList());
+        // Bounded heap keeps the best `limit` entries; its head is the weakest candidate
+        PriorityQueue<Flower> best = new PriorityQueue<>(limit + 1, POPULARITY.reversed());
+        nameTrie.visitPrefix(TextNormalizer.fold(prefix.trim()), AUTOCOMPLETE_MAX_SCAN, id -> {
+            Flower flower = storage.get(id);
+            if (flower == null || !"ACTIVE".equals(flower.getStatus())) {
+                return;
+            }
+            best.offer(flower);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+        List<Flower> result = new ArrayList<>(best);
+        result.sort(POPULARITY);
+        return result;
     }
 
     @Override
-    public List<Flower> findByOccasion(String occasion) {
-        if (occasion == null || occasion.trim().isEmpty()) {
-            return new ArrayList<>();
+    public PageResult<Flower> query(FlowerQuery query) {
+        Criteria criteria = new Criteria(query);
+        Driver driver = plan(criteria);
+
+        List<IndexedFlower> matches = new ArrayList<>();
+        for (Long id : driver.ids) {
+            IndexedFlower entry = indexed.get(id);
+            if (entry != null && criteria.test(entry)) {
+                matches.add(entry);
+            }
         }
-        String searchOccasion = occasion.toLowerCase().trim();
-        return storage.values().stream()
-                .filter(flower -> flower.getOccasion() != null && 
-                        flower.getOccasion().toLowerCase().equals(searchOccasion))
-                .collect(java.util.stream.Collectors.toList());
-    }
 
-    @Override
-    public List<Flower> findByColor(String color) {
-        if (color == null || color.trim().isEmpty()) {
-            return new ArrayList<>();
+        FlowerSort sort = query.getSort();
+        boolean alreadySorted = (sort == FlowerSort.ID && driver.idOrdered)
+                || (sort == FlowerSort.PRICE_ASC && driver.priceOrdered);
+        if (!alreadySorted) {
+            matches.sort(comparatorFor(sort));
+        }
+
+        int from = (int) Math.min((long) query.getPage() * query.getSize(), matches.size());
+        int to = Math.min(from + query.getSize(), matches.size());
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (IndexedFlower entry : matches.subList(from, to)) {
+            pageIds.add(entry.id);
         }
-        String searchColor = color.toLowerCase().trim();
-        return storage.values().stream()
-                .filter(flower -> flower.getColor() != null && 
-                        flower.getColor().toLowerCase().equals(searchColor))
-                .collect(java.util.stream.Collectors.toList());
+        return new PageResult<>(resolve(pageIds), query.getPage(), query.getSize(), matches.size());
     }
 
     @Override
-    public List<Flower> findByPriceRange(java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice) {
-        return storage.values().stream()
-                .filter(flower -> {
-                    if (flower.getPrice() == null) return false;
-                    boolean minCondition = minPrice == null || flower.getPrice().compareTo(minPrice) >= 0;
-                    boolean maxCondition = maxPrice == null || flower.getPrice().compareTo(maxPrice) <= 0;
-                    return minCondition && maxCondition;
-                })
-                .collect(java.util.stream.Collectors.toList());
+    public CursorPage<Flower> findPage(FlowerQuery query, Long cursor, int limit) {
+        Criteria criteria = new Criteria(query);
+        Driver driver = plan(criteria);
+        NavigableSet<Long> ordered;
+        if (driver.idOrdered) {
+            ordered = (NavigableSet<Long>) driver.ids;
+        } else if (driver.estimate * driver.estimate >= (long) limit * indexed.size()) {
+            // A wide price range fills a page within about limit * size / range ids of the catalog
+            ordered = idOrder;
+        } else {
+            // A narrow range costs less to put in id order than to look for in the catalog
+            ordered = new TreeSet<>();
+            for (Long id : driver.ids) {
+                if (cursor == null || id > cursor) {
+                    ordered.add(id);
+                }
+            }
+        }
+        Iterable<Long> remaining = cursor == null ? ordered : ordered.tailSet(cursor, false);
+
+        List<Long> pageIds = new ArrayList<>(Math.max(0, Math.min(limit, 64)));
+        boolean more = false;
+        for (Long id : remaining) {
+            IndexedFlower entry = indexed.get(id);
+            if (entry == null || !criteria.test(entry)) {
+                continue;
+            }
+            if (pageIds.size() == limit) {
+                more = true;
+                break;
+            }
+            pageIds.add(id);
+        }
+        Long nextCursor = more && !pageIds.isEmpty() ? pageIds.get(pageIds.size() - 1) : null;
+        return new CursorPage<>(resolve(pageIds), nextCursor, limit);
     }
 
     @Override
-    public List<Flower> searchByNameOrOccasion(String keyword) {
-        if (keyword == null || keyword.trim().isEmpty()) {
-            return new ArrayList<>();
+    public FlowerFacetCounts facetCounts(FlowerQuery query) {
+        Criteria criteria = new Criteria(query);
+
+        // Criteria that are not facets narrow every count
+        BitSet base = facets.all();
+        if (criteria.statusKey != null) {
+            base.and(facets.bitsOf(FACET_STATUS, criteria.statusKey));
+        }
+        if (criteria.keyword != null) {
+            TreeSet<Long> ids = new TreeSet<>(matchSubstring(nameGrams, criteria.keyword, entry -> entry.nameKey));
+            ids.addAll(matchSubstring(occasionGrams, criteria.keyword, entry -> entry.occasionKey));
+            base.and(facets.bitsOf(ids));
+        }
+        if (criteria.name != null) {
+            base.and(facets.bitsOf(matchName(criteria)));
+        }
+
+        BitSet occasion = criteria.occasionKey == null ? null : facets.bitsOf(FACET_OCCASION, criteria.occasionKey);
+        BitSet color = criteria.colorKey == null ? null : facets.bitsOf(FACET_COLOR, criteria.colorKey);
+        BitSet category = criteria.categoryId == null ? null : facets.bitsOf(FACET_CATEGORY, criteria.categoryId);
+        BitSet price = criteria.hasPriceRange()
+                ? facets.bitsOf(priceIndex.range(criteria.minPrice, criteria.maxPrice))
+                : null;
+
+        // Each facet is counted under every selection except its own
+        long total = intersect(base, occasion, color, category, price).cardinality();
+        Map<String, Long> occasions = stringKeys(
+                facets.count(FACET_OCCASION, intersect(base, color, category, price)));
+        Map<String, Long> colors = stringKeys(
+                facets.count(FACET_COLOR, intersect(base, occasion, category, price)));
+        Map<Long, Long> categories = new LinkedHashMap<>();
+        facets.count(FACET_CATEGORY, intersect(base, occasion, color, price))
+                .forEach((key, count) -> categories.put((Long) key, count));
+        Map<String, Long> priceBuckets = new LinkedHashMap<>();
+        Map<Object, Long> bucketCounts = facets.count(FACET_PRICE, intersect(base, occasion, color, category));
+        for (int bucket = 0; bucket < PriceBuckets.count(); bucket++) {
+            Long count = bucketCounts.get(bucket);
+            if (count != null) {
+                priceBuckets.put(PriceBuckets.label(bucket), count);
+            }
         }
-        String searchTerm = keyword.toLowerCase().trim();
-        return storage.values().stream()
-                .filter(flower -> 
-                        (flower.getName() != null && flower.getName().toLowerCase().contains(searchTerm)) ||
-                        (flower.getOccasion() != null && flower.getOccasion().toLowerCase().contains(searchTerm)))
-                .collect(java.util.stream.Collectors.toList());
+        return new FlowerFacetCounts(total, occasions, colors, categories, priceBuckets);
     }
 
     @Override
     public List<Flower> findHotFlowers() {
-        return storage.values().stream()
-                .filter(Flower::isHot)
-                .filter(flower -> "ACTIVE".equals(flower.getStatus()))
-                .sorted(java.util.Comparator.comparing(Flower::getViewCount).reversed())
-                .collect(java.util.stream.Collectors.toList());
+        return hotSnapshot;
     }
 
     @Override
     public List<Flower> findFeaturedFlowers() {
-        return storage.values().stream()
-                .filter(Flower::isFeatured)
-                .filter(flower -> "ACTIVE".equals(flower.getStatus()))
-                .sorted(java.util.Comparator.comparing(Flower::getViewCount).reversed())
-                .collect(java.util.stream.Collectors.toList());
+        return featuredSnapshot;
     }
 
     @Override
     public List<Flower> findBestSelling(int limit) {
-        return storage.values().stream()
-                .filter(flower -> "ACTIVE".equals(flower.getStatus()))
-                .sorted(java.util.Comparator.comparing(Flower::getSoldCount).reversed())
-                .limit(limit)
-                .collect(java.util.stream.Collectors.toList());
+        return resolve(bestSellers.top(limit));
+    }
+
+    private void reindex(Flower flower) {
+        Long id = flower.getId();
+        IndexedFlower previous = indexed.get(id);
+        IndexedFlower current = IndexedFlower.of(flower);
+        if (previous == null || !Objects.equals(previous.occasionKey, current.occasionKey)) {
+            if (previous != null) {
+                occasionIndex.remove(previous.occasionKey, id);
+                occasionGrams.remove(previous.occasionKey, id);
+            }
+            occasionIndex.add(current.occasionKey, id);
+            occasionGrams.add(current.occasionKey, id);
+        }
+        if (previous == null || !Objects.equals(previous.colorKey, current.colorKey)) {
+            if (previous != null) {
+                colorIndex.remove(previous.colorKey, id);
+            }
+            colorIndex.add(current.colorKey, id);
+        }
+        if (previous == null || !Objects.equals(previous.categoryId, current.categoryId)) {
+            if (previous != null) {
+                categoryIndex.remove(previous.categoryId, id);
+            }
+            categoryIndex.add(current.categoryId, id);
+        }
+        if (previous == null || !Objects.equals(previous.statusKey, current.statusKey)) {
+            if (previous != null) {
+                statusIndex.remove(previous.statusKey, id);
+            }
+            statusIndex.add(current.statusKey, id);
+        }
+        if (previous == null || !samePrice(previous.price, current.price)) {
+            if (previous != null) {
+                priceIndex.remove(previous.price, id);
+            }
+            priceIndex.add(current.price, id);
+        }
+        moveFacets(previous, current);
+        if (previous == null || !Objects.equals(previous.nameKey, current.nameKey)) {
+            if (previous != null) {
+                nameGrams.remove(previous.nameKey, id);
+            }
+            nameGrams.add(current.nameKey, id);
+        }
+        if (previous == null || !Objects.equals(previous.foldedName, current.foldedName)) {
+            if (previous != null) {
+                foldedNameGrams.remove(previous.foldedName, id);
+                nameTrie.remove(trieKey(previous.foldedName), id);
+            }
+            foldedNameGrams.add(current.foldedName, id);
+            nameTrie.add(trieKey(current.foldedName), id);
+        }
+        if (previous == null || previous.active != current.active || previous.soldCount != current.soldCount) {
+            if (previous != null && previous.active) {
+                bestSellers.remove(previous.soldCount, id);
+            }
+            if (current.active) {
+                bestSellers.add(current.soldCount, id);
+            }
+        }
+        if (previous == null || previous.hot != current.hot || previous.viewCount != current.viewCount) {
+            if (previous != null && previous.hot) {
+                hotRanking.remove(previous.viewCount, id);
+            }
+            if (current.hot) {
+                hotRanking.add(current.viewCount, id);
+            }
+            hotDirty |= (previous != null && previous.hot) || current.hot;
+        }
+        if (previous == null || previous.featured != current.featured || previous.viewCount != current.viewCount) {
+            if (previous != null && previous.featured) {
+                featuredRanking.remove(previous.viewCount, id);
+            }
+            if (current.featured) {
+                featuredRanking.add(current.viewCount, id);
+            }
+            featuredDirty |= (previous != null && previous.featured) || current.featured;
+        }
+        indexed.put(id, current);
+        if (previous == null) {
+            idOrder.add(id);
+        }
+    }
+
+    private void unindex(Long id) {
+        IndexedFlower previous = indexed.remove(id);
+        if (previous == null) {
+            return;
+        }
+        idOrder.remove(id);
+        occasionIndex.remove(previous.occasionKey, id);
+        colorIndex.remove(previous.colorKey, id);
+        categoryIndex.remove(previous.categoryId, id);
+        statusIndex.remove(previous.statusKey, id);
+        priceIndex.remove(previous.price, id);
+        nameGrams.remove(previous.nameKey, id);
+        foldedNameGrams.remove(previous.foldedName, id);
+        nameTrie.remove(trieKey(previous.foldedName), id);
+        occasionGrams.remove(previous.occasionKey, id);
+        moveFacets(previous, null);
+        facets.release(id);
+        if (previous.active) {
+            bestSellers.remove(previous.soldCount, id);
+        }
+        if (previous.hot) {
+            hotRanking.remove(previous.viewCount, id);
+            hotDirty = true;
+        }
+        if (previous.featured) {
+            featuredRanking.remove(previous.viewCount, id);
+            featuredDirty = true;
+        }
+    }
+
+    /**
+     * Moves the flower's facet bits from the previous to the current values (either may be null).
+     */
+    private void moveFacets(IndexedFlower previous, IndexedFlower current) {
+        long id = previous != null ? previous.id : current.id;
+        moveFacet(FACET_OCCASION, previous, current, entry -> entry.occasionKey, id);
+        moveFacet(FACET_COLOR, previous, current, entry -> entry.colorKey, id);
+        moveFacet(FACET_CATEGORY, previous, current, entry -> entry.categoryId, id);
+        moveFacet(FACET_PRICE, previous, current, entry -> entry.priceBucket, id);
+        moveFacet(FACET_STATUS, previous, current, entry -> entry.statusKey, id);
+    }
+
+    private void moveFacet(String dimension, IndexedFlower previous, IndexedFlower current,
+                           Function<IndexedFlower, Object> value, long id) {
+        Object oldValue = previous == null ? null : value.apply(previous);
+        Object newValue = current == null ? null : value.apply(current);
+        if (previous == null || !Objects.equals(oldValue, newValue)) {
+            facets.move(dimension, oldValue, newValue, id);
+        }
+    }
+
+    /**
+     * Rebuilds the hot/featured snapshots touched by the last write. Called under the write lock.
+     */
+    private void publishSnapshots() {
+        if (hotDirty) {
+            hotSnapshot = Collections.unmodifiableList(resolve(hotRanking.top(Integer.MAX_VALUE)));
+            hotDirty = false;
+        }
+        if (featuredDirty) {
+            featuredSnapshot = Collections.unmodifiableList(resolve(featuredRanking.top(Integer.MAX_VALUE)));
+            featuredDirty = false;
+        }
+    }
+
+    /**
+     * Ids whose indexed text contains the term, in ascending order. The gram index narrows
+     * the candidates; each one is then verified so "contains" semantics are unchanged.
+     * Terms shorter than a trigram fall back to a scan over the precomputed keys.
+     */
+    private List<Long> matchSubstring(NGramIndex grams, String term, Function<IndexedFlower, String> text) {
+        List<Long> candidates = grams.candidates(term);
+        List<Long> matches = new ArrayList<>();
+        if (candidates != null) {
+            for (Long id : candidates) {
+                IndexedFlower entry = indexed.get(id);
+                String value = entry == null ? null : text.apply(entry);
+                if (value != null && value.contains(term)) {
+                    matches.add(id);
+                }
+            }
+            return matches;
+        }
+        for (Map.Entry<Long, IndexedFlower> entry : indexed.entrySet()) {
+            String value = text.apply(entry.getValue());
+            if (value != null && value.contains(term)) {
+                matches.add(entry.getKey());
+            }
+        }
+        Collections.sort(matches);
+        return matches;
+    }
+
+    private List<Long> matchName(Criteria criteria) {
+        return criteria.ignoreAccents
+                ? matchSubstring(foldedNameGrams, criteria.name, entry -> entry.foldedName)
+                : matchSubstring(nameGrams, criteria.name, entry -> entry.nameKey);
+    }
+
+    /**
+     * Picks the cheapest index to drive a query: equality indexes report exact sizes in O(1),
+     * the keyword's rarest trigram bounds its candidates, and the price range is counted only
+     * up to the best size found so far. The remaining criteria are checked per candidate,
+     * so a combined query costs about as much as its most selective criterion.
+     */
+    private Driver plan(Criteria criteria) {
+        // Fallback: scan every indexed flower
+        Driver driver = new Driver(idOrder, indexed.size(), true, false);
+        driver = cheaperOf(driver, occasionIndex, criteria.occasionKey);
+        driver = cheaperOf(driver, colorIndex, criteria.colorKey);
+        driver = cheaperOf(driver, categoryIndex, criteria.categoryId);
+        driver = cheaperOf(driver, statusIndex, criteria.statusKey);
+        if (driver.estimate == 0) {
+            return driver;
+        }
+
+        if (criteria.keyword != null) {
+            int inNames = nameGrams.estimate(criteria.keyword);
+            int inOccasions = occasionGrams.estimate(criteria.keyword);
+            long estimate = (long) inNames + inOccasions;
+            if (inNames >= 0 && inOccasions >= 0 && estimate < driver.estimate) {
+                TreeSet<Long> candidates = new TreeSet<>(nameGrams.candidates(criteria.keyword));
+                candidates.addAll(occasionGrams.candidates(criteria.keyword));
+                driver = new Driver(candidates, estimate, true, false);
+            }
+        }
+
+        if (criteria.name != null) {
+            NGramIndex grams = criteria.ignoreAccents ? foldedNameGrams : nameGrams;
+            int estimate = grams.estimate(criteria.name);
+            if (estimate >= 0 && estimate < driver.estimate) {
+                driver = new Driver(new TreeSet<>(grams.candidates(criteria.name)), estimate, true, false);
+            }
+        }
+
+        if (criteria.hasPriceRange()) {
+            long inRange = priceIndex.countUpTo(criteria.minPrice, criteria.maxPrice, driver.estimate);
+            if (inRange < driver.estimate) {
+                driver = new Driver(priceIndex.ids(criteria.minPrice, criteria.maxPrice), inRange, false, true);
+            }
+        }
+        return driver;
+    }
+
+    /**
+     * AND of the base selection with every non-null filter, as a new bitmap.
+     */
+    private static BitSet intersect(BitSet base, BitSet... filters) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Long> stringKeys(Map<Object, Long> counts) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        counts.forEach((key, count) -> result.put((String) key, count));
+        return result;
+    }
+
+    private static <K> Driver cheaperOf(Driver current, KeyIndex<K> index, K key) {
+        if (key == null) {
+            return current;
+        }
+        int count = index.count(key);
+        return count < current.estimate ? new Driver(index.get(key), count, true, false) : current;
+    }
+
+    private static Comparator<IndexedFlower> comparatorFor(FlowerSort sort) {
+        Comparator<IndexedFlower> byId = Comparator.comparing(entry -> entry.id);
+        switch (sort) {
+            case PRICE_ASC:
+                return Comparator.comparing((IndexedFlower entry) -> entry.price,
+                        Comparator.nullsLast(Comparator.<BigDecimal>naturalOrder())).thenComparing(byId);
+            case PRICE_DESC:
+                return Comparator.comparing((IndexedFlower entry) -> entry.price,
+                        Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder())).thenComparing(byId);
+            case BEST_SELLING:
+                return Comparator.comparingInt((IndexedFlower entry) -> entry.soldCount).reversed().thenComparing(byId);
+            case MOST_VIEWED:
+                return Comparator.comparingInt((IndexedFlower entry) -> entry.viewCount).reversed().thenComparing(byId);
+            case NEWEST:
+                return Comparator.comparing((IndexedFlower entry) -> entry.createdAt,
+                        Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder())).thenComparing(byId.reversed());
+            case ID:
+            default:
+                return byId;
+        }
+    }
+
+    private List<Flower> resolve(Collection<Long> ids) {
+        List<Flower> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Flower flower = storage.get(id);
+            if (flower != null) {
+                result.add(flower);
+            }
+        }
+        return result;
+    }
+
+    private static boolean samePrice(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    private static String trieKey(String foldedName) {
+        return foldedName == null ? null : foldedName.strip();
+    }
+
+    private static int countOf(Integer count) {
+        return count == null ? 0 : count;
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    private static String normalizeKey(String value) {
+        return value == null ? null : value.toLowerCase();
+    }
+
+    /**
+     * Keys a flower is currently indexed under, captured at save time.
+     */
+    private static final class IndexedFlower {
+        private final Long id;
+        private final String nameKey;
+        private final String foldedName;
+        private final String occasionKey;
+        private final String colorKey;
+        private final BigDecimal price;
+        private final Integer priceBucket;
+        private final Long categoryId;
+        private final String statusKey;
+        private final LocalDateTime createdAt;
+        private final boolean active;
+        private final int soldCount;
+        // Active and flagged
+        private final boolean hot;
+        private final boolean featured;
+        private final int viewCount;
+
+        private IndexedFlower(Flower flower) {
+            this.id = flower.getId();
+            this.nameKey = normalizeKey(flower.getName());
+            this.foldedName = TextNormalizer.fold(flower.getName());
+            this.occasionKey = normalizeKey(flower.getOccasion());
+            this.colorKey = normalizeKey(flower.getColor());
+            this.price = flower.getPrice();
+            this.priceBucket = PriceBuckets.of(flower.getPrice());
+            this.categoryId = flower.getCategoryId();
+            this.statusKey = normalizeKey(flower.getStatus());
+            this.createdAt = flower.getCreatedAt();
+            this.active = "ACTIVE".equals(flower.getStatus());
+            this.soldCount = countOf(flower.getSoldCount());
+            this.hot = active && flower.isHot();
+            this.featured = active && flower.isFeatured();
+            this.viewCount = countOf(flower.getViewCount());
+        }
+
+        private static IndexedFlower of(Flower flower) {
+            return new IndexedFlower(flower);
+        }
+    }
+
+    /**
+     * Normalized criteria of a {@link FlowerQuery}; null fields are not filtered on.
+     */
+    private static final class Criteria {
+        private final String occasionKey;
+        private final String colorKey;
+        private final String statusKey;
+        private final Long categoryId;
+        private final String keyword;
+        private final String name;
+        private final boolean ignoreAccents;
+        private final BigDecimal minPrice;
+        private final BigDecimal maxPrice;
+
+        private Criteria(FlowerQuery query) {
+            this.occasionKey = normalizeKey(trimToNull(query.getOccasion()));
+            this.colorKey = normalizeKey(trimToNull(query.getColor()));
+            this.statusKey = normalizeKey(trimToNull(query.getStatus()));
+            this.categoryId = query.getCategoryId();
+            this.keyword = normalizeKey(trimToNull(query.getKeyword()));
+            this.ignoreAccents = query.isIgnoreAccents();
+            String trimmedName = trimToNull(query.getName());
+            this.name = ignoreAccents ? TextNormalizer.fold(trimmedName) : normalizeKey(trimmedName);
+            this.minPrice = query.getMinPrice();
+            this.maxPrice = query.getMaxPrice();
+        }
+
+        private boolean hasPriceRange() {
+            return minPrice != null || maxPrice != null;
+        }
+
+        private boolean test(IndexedFlower entry) {
+            if (occasionKey != null && !occasionKey.equals(entry.occasionKey)) return false;
+            if (colorKey != null && !colorKey.equals(entry.colorKey)) return false;
+            if (statusKey != null && !statusKey.equals(entry.statusKey)) return false;
+            if (categoryId != null && !categoryId.equals(entry.categoryId)) return false;
+            if (hasPriceRange()) {
+                if (entry.price == null) return false;
+                if (minPrice != null && entry.price.compareTo(minPrice) < 0) return false;
+                if (maxPrice != null && entry.price.compareTo(maxPrice) > 0) return false;
+            }
+            if (name != null) {
+                String text = ignoreAccents ? entry.foldedName : entry.nameKey;
+                if (text == null || !text.contains(name)) return false;
+            }
+            if (keyword != null) {
+                boolean inName = entry.nameKey != null && entry.nameKey.contains(keyword);
+                boolean inOccasion = entry.occasionKey != null && entry.occasionKey.contains(keyword);
+                return inName || inOccasion;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Candidate ids chosen by the planner, their estimated count and the order they come in.
+     * Id-ordered candidates are a NavigableSet; price-ordered ones are read lazily from the index.
+     */
+    private static final class Driver {
+        private final Iterable<Long> ids;
+        private final long estimate;
+        private final boolean idOrdered;
+        private final boolean priceOrdered;
+
+        private Driver(Iterable<Long> ids, long estimate, boolean idOrdered, boolean priceOrdered) {
+            this.ids = ids;
+            this.estimate = estimate;
+            this.idOrdered = idOrdered;
+            this.priceOrdered = priceOrdered;
+        }
     }
 }
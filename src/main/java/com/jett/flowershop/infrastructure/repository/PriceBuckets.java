@@ -0,0 +1,48 @@
+package com.jett.flowershop.infrastructure.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Price facet buckets shared by the Flower repositories.
+ *
+ * Rules:
+ * - Buckets are identified by index; labels are "min-max", the last one "min+"
+ * - Flowers without a price (or with a negative one) fall in no bucket
+ */
+final class PriceBuckets {
+
+    // Lower bounds of the buckets; the last bucket is open-ended
+    private static final BigDecimal[] LOWER_BOUNDS = {
+            BigDecimal.ZERO,
+            BigDecimal.valueOf(100_000),
+            BigDecimal.valueOf(200_000),
+            BigDecimal.valueOf(500_000),
+            BigDecimal.valueOf(1_000_000)
+    };
+
+    private PriceBuckets() {
+    }
+
+    static int count() {
+        return LOWER_BOUNDS.length;
+    }
+
+    /**
+     * Index of the bucket the price falls in, or null when there is none.
+     */
+    static Integer of(BigDecimal price) {
+        if (price == null || price.signum() < 0) {
+            return null;
+        }
+        int bucket = 0;
+        while (bucket + 1 < LOWER_BOUNDS.length && price.compareTo(LOWER_BOUNDS[bucket + 1]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    static String label(int bucket) {
+        String from = LOWER_BOUNDS[bucket].toPlainString();
+        return bucket + 1 < LOWER_BOUNDS.length ? from + "-" + LOWER_BOUNDS[bucket + 1].toPlainString() : from + "+";
+    }
+}
@@ -1,21 +1,75 @@
 package com.jett.flowershop.infrastructure.repository;
 
 import com.jett.flowershop.domain.entity.Review;
+import com.jett.flowershop.domain.query.RatingSummary;
 import com.jett.flowershop.domain.repository.ReviewRepository;
+import com.jett.flowershop.infrastructure.persistence.Journal;
+import com.jett.flowershop.infrastructure.persistence.ReviewCodec;
+import com.jett.flowershop.infrastructure.persistence.StorageEngine;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * In-memory Review repository with a per-flower index of approved reviews.
+ *
+ * For every flower the index holds its approved reviews newest first plus running rating
+ * aggregates (count, sum, 1-5 histogram). Each write moves only the saved review in or out
+ * of its flower's entry, so {@link #findByFlowerId} and {@link #findRatingSummary} are
+ * lookups instead of scans over all reviews.
+ *
+ * Services change reviews in place before saving them, so the index remembers what it
+ * counted for each review id and removes exactly that on the next save or delete.
+ *
+ * Rules:
+ * - A review is indexed while its status is APPROVED and it has a flowerId
+ * - Index writes happen under writeLock; readers see immutable lists and summaries
+ */
 @Repository
 public class ReviewRepositoryImpl implements ReviewRepository {
-    
+
+    private static final Comparator<Review> NEWEST_FIRST = Comparator
+            .comparing(Review::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Review::getId);
+
     private final Map<Long, Review> storage = new ConcurrentHashMap<>();
+    private final Map<Long, FlowerReviews> byFlower = new ConcurrentHashMap<>();
+    // What the index currently counts for each review id; guarded by writeLock
+    private final Map<Long, Indexed> indexed = new HashMap<>();
+    private final Object writeLock = new Object();
+    private final Journal<Review> journal;
+
+    public ReviewRepositoryImpl() {
+        this(Journal.inMemory());
+    }
+
+    @Autowired
+    public ReviewRepositoryImpl(StorageEngine storageEngine) {
+        this(storageEngine.open("reviews", new ReviewCodec()));
+    }
+
+    ReviewRepositoryImpl(Journal<Review> journal) {
+        this.journal = journal;
+        journal.attach(storage);
+        storage.putAll(journal.recovered());
+        synchronized (writeLock) {
+            storage.values().forEach(review -> reindex(review.getId(), review));
+        }
+    }
 
     @Override
     public Review save(Review review) {
-        storage.put(review.getId(), review);
+        long lsn;
+        // Map and journal order must agree for the same id
+        synchronized (writeLock) {
+            storage.put(review.getId(), review);
+            reindex(review.getId(), review);
+            lsn = journal.put(review.getId(), review);
+        }
+        journal.sync(lsn);
         return review;
     }
 
@@ -50,20 +104,113 @@ public class ReviewRepositoryImpl implements ReviewRepository {
 
     @Override
     public List<Review> findByFlowerId(Long flowerId) {
-        return storage.values().stream()
-                .filter(review -> flowerId.equals(review.getFlowerId()))
-                .filter(review -> "APPROVED".equals(review.getStatus()))
-                .sorted(Comparator.comparing(Review::getCreatedAt).reversed())
-                .collect(Collectors.toList());
+        FlowerReviews entry = byFlower.get(flowerId);
+        return entry == null ? new ArrayList<>() : new ArrayList<>(entry.reviews);
+    }
+
+    @Override
+    public RatingSummary findRatingSummary(Long flowerId) {
+        FlowerReviews entry = byFlower.get(flowerId);
+        return entry == null ? RatingSummary.empty(flowerId) : entry.summary;
     }
 
     @Override
     public void deleteById(Long id) {
-        storage.remove(id);
+        long lsn;
+        synchronized (writeLock) {
+            storage.remove(id);
+            reindex(id, null);
+            lsn = journal.delete(id);
+        }
+        journal.sync(lsn);
     }
 
     @Override
     public boolean existsById(Long id) {
         return storage.containsKey(id);
     }
+
+    /**
+     * Moves the review with this id to where its current state belongs in the index;
+     * a null review means it was deleted.
+     */
+    private void reindex(Long id, Review current) {
+        Indexed previous = indexed.remove(id);
+        Indexed next = null;
+        if (current != null && current.getFlowerId() != null && "APPROVED".equals(current.getStatus())) {
+            next = new Indexed(current.getFlowerId(), current.getRating());
+            indexed.put(id, next);
+        }
+        if (previous != null && next != null && previous.flowerId.equals(next.flowerId)) {
+            // Same flower: one republish, so readers never see the review missing
+            byFlower.get(next.flowerId).update(id, previous.rating, current, next.rating);
+            return;
+        }
+        if (previous != null) {
+            byFlower.get(previous.flowerId).update(id, previous.rating, null, null);
+        }
+        if (next != null) {
+            byFlower.computeIfAbsent(next.flowerId, FlowerReviews::new).update(null, null, current, next.rating);
+        }
+    }
+
+    private static boolean counted(Integer rating) {
+        return rating != null && rating >= 1 && rating <= 5;
+    }
+
+    /**
+     * Values a review had when it was indexed.
+     */
+    private static final class Indexed {
+        private final Long flowerId;
+        private final Integer rating;
+
+        private Indexed(Long flowerId, Integer rating) {
+            this.flowerId = flowerId;
+            this.rating = rating;
+        }
+    }
+
+    /**
+     * One flower's approved reviews and rating aggregates; mutated under writeLock and
+     * republished as an immutable list and summary after every change.
+     */
+    private static final class FlowerReviews {
+        private final Long flowerId;
+        private final long[] histogram = new long[5];
+        private long count;
+        private long sum;
+        private volatile List<Review> reviews = List.of();
+        private volatile RatingSummary summary;
+
+        private FlowerReviews(Long flowerId) {
+            this.flowerId = flowerId;
+            this.summary = RatingSummary.empty(flowerId);
+        }
+
+        private void update(Long removedId, Integer removedRating, Review added, Integer addedRating) {
+            List<Review> next = new ArrayList<>(reviews.size() + 1);
+            next.addAll(reviews);
+            if (removedId != null) {
+                // The stored review may have been changed in place, so match by id
+                next.removeIf(review -> review.getId().equals(removedId));
+                if (counted(removedRating)) {
+                    count--;
+                    sum -= removedRating;
+                    histogram[removedRating - 1]--;
+                }
+            }
+            if (added != null) {
+                int position = Collections.binarySearch(next, added, NEWEST_FIRST);
+                next.add(position < 0 ? -position - 1 : position, added);
+                if (counted(addedRating)) {
+                    count++;
+                    sum += addedRating;
+                    histogram[addedRating - 1]++;
+                }
+            }
+            reviews = Collections.unmodifiableList(next);
+            summary = new RatingSummary(flowerId, count, sum, histogram);
+        }
+    }
 }
@@ -0,0 +1,147 @@
+package com.jett.flowershop.infrastructure.repository.index;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-value bitmaps over dense internal ordinals, for facet counting.
+ *
+ * Each id gets a small ordinal (reused after release) so a facet value is one {@link BitSet}.
+ * Counting a facet under a selection is then one AND + cardinality per value.
+ *
+ * Rules:
+ * - Dimension names are fixed by the caller; values are normalized by the caller
+ * - Writes and reads are guarded by a read/write lock because BitSet is not thread-safe
+ */
+public class FacetBitmaps {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, Map<Object, BitSet>> dimensions = new HashMap<>();
+    private int nextOrdinal;
+
+    /**
+     * Moves the id from oldValue to newValue in the dimension (either may be null).
+     */
+    public void move(String dimension, Object oldValue, Object newValue, long id) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinalFor(id);
+            Map<Object, BitSet> values = dimensions.computeIfAbsent(dimension, d -> new HashMap<>());
+            if (oldValue != null) {
+                BitSet bits = values.get(oldValue);
+                if (bits != null) {
+                    bits.clear(ordinal);
+                    if (bits.isEmpty()) {
+                        values.remove(oldValue);
+                    }
+                }
+            }
+            if (newValue != null) {
+                values.computeIfAbsent(newValue, v -> new BitSet()).set(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Frees the id's ordinal. The id must already be cleared from every dimension.
+     */
+    public void release(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal != null) {
+                live.clear(ordinal);
+                freeOrdinals.push(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Bitmap of every live id.
+     */
+    public BitSet all() {
+        lock.readLock().lock();
+        try {
+            return (BitSet) live.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bitmap of the ids carrying the value (a copy the caller may modify).
+     */
+    public BitSet bitsOf(String dimension, Object value) {
+        lock.readLock().lock();
+        try {
+            BitSet bits = dimensions.getOrDefault(dimension, Map.of()).get(value);
+            return bits == null ? new BitSet() : (BitSet) bits.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bitmap of the given ids; unknown ids are ignored.
+     */
+    public BitSet bitsOf(Iterable<Long> ids) {
+        lock.readLock().lock();
+        try {
+            BitSet bits = new BitSet();
+            for (Long id : ids) {
+                Integer ordinal = ordinals.get(id);
+                if (ordinal != null) {
+                    bits.set(ordinal);
+                }
+            }
+            return bits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * value -> number of ids in (value AND selection), omitting zero counts.
+     */
+    public Map<Object, Long> count(String dimension, BitSet selection) {
+        lock.readLock().lock();
+        try {
+            Map<Object, Long> counts = new LinkedHashMap<>();
+            BitSet scratch = new BitSet();
+            for (Map.Entry<Object, BitSet> value : dimensions.getOrDefault(dimension, Map.of()).entrySet()) {
+                scratch.clear();
+                scratch.or(value.getValue());
+                scratch.and(selection);
+                int cardinality = scratch.cardinality();
+                if (cardinality > 0) {
+                    counts.put(value.getKey(), (long) cardinality);
+                }
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int ordinalFor(long id) {
+        Integer existing = ordinals.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+        ordinals.put(id, ordinal);
+        live.set(ordinal);
+        return ordinal;
+    }
+}
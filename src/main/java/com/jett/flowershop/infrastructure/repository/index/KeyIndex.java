@@ -0,0 +1,68 @@
+package com.jett.flowershop.infrastructure.repository.index;
+
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Secondary hash index: normalized key -> ids of the entities carrying that key.
+ *
+ * Rules:
+ * - Keys are normalized by the caller
+ * - Posting lists are kept in ascending id order
+ * - add/remove are atomic per key; reads never block
+ */
+public class KeyIndex<K> {
+
+    private final ConcurrentHashMap<K, Posting> postings = new ConcurrentHashMap<>();
+
+    public void add(K key, Long id) {
+        if (key == null || id == null) {
+            return;
+        }
+        postings.compute(key, (k, posting) -> {
+            Posting target = posting != null ? posting : new Posting();
+            if (target.ids.add(id)) {
+                target.size.incrementAndGet();
+            }
+            return target;
+        });
+    }
+
+    public void remove(K key, Long id) {
+        if (key == null || id == null) {
+            return;
+        }
+        postings.computeIfPresent(key, (k, posting) -> {
+            if (posting.ids.remove(id)) {
+                posting.size.decrementAndGet();
+            }
+            return posting.ids.isEmpty() ? null : posting;
+        });
+    }
+
+    /**
+     * Ids indexed under the key, in ascending order. The returned view is read-only and live.
+     */
+    public NavigableSet<Long> get(K key) {
+        Posting posting = key == null ? null : postings.get(key);
+        return posting == null
+                ? Collections.emptyNavigableSet()
+                : Collections.unmodifiableNavigableSet(posting.ids);
+    }
+
+    /**
+     * Number of ids under the key in O(1).
+     */
+    public int count(K key) {
+        Posting posting = key == null ? null : postings.get(key);
+        return posting == null ? 0 : posting.size.get();
+    }
+
+    private static final class Posting {
+        private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+        private final AtomicInteger size = new AtomicInteger();
+    }
+}
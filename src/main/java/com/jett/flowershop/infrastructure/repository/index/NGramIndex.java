@@ -0,0 +1,100 @@
+package com.jett.flowershop.infrastructure.repository.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+
+/**
+ * Trigram inverted index for substring search.
+ *
+ * Every text containing a query of length >= 3 also contains all of the query's trigrams,
+ * so intersecting their posting lists yields a candidate superset. Callers must still verify
+ * each candidate with {@code contains} to keep exact substring semantics.
+ *
+ * Rules:
+ * - Texts and queries are normalized (e.g. lower-cased) by the caller
+ * - Queries shorter than {@link #GRAM} cannot be narrowed; {@link #candidates} returns null
+ */
+public class NGramIndex {
+
+    public static final int GRAM = 3;
+
+    private final KeyIndex<String> postings = new KeyIndex<>();
+
+    public void add(String text, Long id) {
+        for (String gram : grams(text)) {
+            postings.add(gram, id);
+        }
+    }
+
+    public void remove(String text, Long id) {
+        for (String gram : grams(text)) {
+            postings.remove(gram, id);
+        }
+    }
+
+    /**
+     * Ids of texts that may contain the query, in ascending order,
+     * or null when the query is too short to use the index.
+     */
+    public List<Long> candidates(String query) {
+        if (query == null || query.length() < GRAM) {
+            return null;
+        }
+        List<String> grams = new ArrayList<>(grams(query));
+        // Drive the intersection from the rarest gram
+        grams.sort(Comparator.comparingInt(postings::count));
+        if (postings.count(grams.get(0)) == 0) {
+            return new ArrayList<>();
+        }
+
+        List<NavigableSet<Long>> others = new ArrayList<>(grams.size() - 1);
+        for (int i = 1; i < grams.size(); i++) {
+            others.add(postings.get(grams.get(i)));
+        }
+
+        List<Long> result = new ArrayList<>();
+        for (Long id : postings.get(grams.get(0))) {
+            boolean inAll = true;
+            for (NavigableSet<Long> other : others) {
+                if (!other.contains(id)) {
+                    inAll = false;
+                    break;
+                }
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Upper bound on the number of candidates for the query (size of its rarest posting list),
+     * or -1 when the query is too short to use the index. Costs one lookup per gram.
+     */
+    public int estimate(String query) {
+        if (query == null || query.length() < GRAM) {
+            return -1;
+        }
+        int smallest = Integer.MAX_VALUE;
+        for (String gram : grams(query)) {
+            smallest = Math.min(smallest, postings.count(gram));
+        }
+        return smallest;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (text == null) {
+            return grams;
+        }
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
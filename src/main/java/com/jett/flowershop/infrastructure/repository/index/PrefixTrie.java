@@ -0,0 +1,179 @@
+package com.jett.flowershop.infrastructure.repository.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.LongConsumer;
+
+/**
+ * Compact prefix trie: key -> ids, for type-ahead lookups.
+ *
+ * Children are stored as sorted char/node arrays and ids as a small long[], all replaced
+ * copy-on-write, so readers walk the trie without locks while a writer updates it.
+ *
+ * Rules:
+ * - Keys are normalized by the caller
+ * - Writers (add/remove) must be serialized by the caller
+ */
+public class PrefixTrie {
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final Node root = new Node();
+
+    public void add(String key, long id) {
+        if (key == null) {
+            return;
+        }
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            char label = key.charAt(i);
+            Node child = node.child(label);
+            if (child == null) {
+                child = new Node();
+                node.children = node.children.with(label, child);
+            }
+            node = child;
+        }
+        long[] ids = node.ids;
+        for (long existing : ids) {
+            if (existing == id) {
+                return;
+            }
+        }
+        long[] updated = Arrays.copyOf(ids, ids.length + 1);
+        updated[ids.length] = id;
+        node.ids = updated;
+    }
+
+    public void remove(String key, long id) {
+        if (key == null) {
+            return;
+        }
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+
+        Node terminal = path[key.length()];
+        long[] ids = terminal.ids;
+        int index = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return;
+        }
+        long[] updated = ids.length == 1 ? NO_IDS : new long[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, index);
+        System.arraycopy(ids, index + 1, updated, index, ids.length - index - 1);
+        terminal.ids = updated;
+
+        // Prune nodes that no longer lead to any key
+        for (int depth = key.length(); depth > 0; depth--) {
+            Node node = path[depth];
+            if (node.ids.length > 0 || node.children.labels.length > 0) {
+                break;
+            }
+            Node parent = path[depth - 1];
+            parent.children = parent.children.without(key.charAt(depth - 1));
+        }
+    }
+
+    /**
+     * Visits the ids of every key starting with the prefix, stopping after maxVisits ids.
+     *
+     * @return number of ids visited
+     */
+    public int visitPrefix(String prefix, int maxVisits, LongConsumer visitor) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return 0;
+        }
+
+        int visited = 0;
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            for (long id : current.ids) {
+                if (visited == maxVisits) {
+                    return visited;
+                }
+                visitor.accept(id);
+                visited++;
+            }
+            Node[] children = current.children.nodes;
+            for (int i = children.length - 1; i >= 0; i--) {
+                stack.push(children[i]);
+            }
+        }
+        return visited;
+    }
+
+    private static final class Node {
+        private volatile Children children = Children.EMPTY;
+        private volatile long[] ids = NO_IDS;
+
+        private Node child(char label) {
+            Children current = children;
+            int index = Arrays.binarySearch(current.labels, label);
+            return index >= 0 ? current.nodes[index] : null;
+        }
+    }
+
+    /**
+     * Immutable sorted child table, swapped as a whole so labels and nodes always agree.
+     */
+    private static final class Children {
+        private static final Children EMPTY = new Children(new char[0], new Node[0]);
+
+        private final char[] labels;
+        private final Node[] nodes;
+
+        private Children(char[] labels, Node[] nodes) {
+            this.labels = labels;
+            this.nodes = nodes;
+        }
+
+        private Children with(char label, Node node) {
+            int insertAt = -(Arrays.binarySearch(labels, label) + 1);
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newNodes = new Node[nodes.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(nodes, 0, newNodes, 0, insertAt);
+            newLabels[insertAt] = label;
+            newNodes[insertAt] = node;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(nodes, insertAt, newNodes, insertAt + 1, nodes.length - insertAt);
+            return new Children(newLabels, newNodes);
+        }
+
+        private Children without(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return this;
+            }
+            if (labels.length == 1) {
+                return EMPTY;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newNodes = new Node[nodes.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(nodes, 0, newNodes, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(nodes, index + 1, newNodes, index, nodes.length - index - 1);
+            return new Children(newLabels, newNodes);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.jett.flowershop.infrastructure.repository.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Sorted secondary index: comparable key -> ids, navigable by key range.
+ *
+ * Rules:
+ * - Keys compare with compareTo, so 10.0 and 10.00 share one entry
+ * - Ids under one key are kept in ascending order
+ * - add/remove are atomic per key; reads never block
+ */
+public class RangeIndex<K extends Comparable<? super K>> {
+
+    private final ConcurrentSkipListMap<K, ConcurrentSkipListSet<Long>> entries = new ConcurrentSkipListMap<>();
+
+    public void add(K key, Long id) {
+        if (key == null || id == null) {
+            return;
+        }
+        entries.compute(key, (k, ids) -> {
+            ConcurrentSkipListSet<Long> target = ids != null ? ids : new ConcurrentSkipListSet<>();
+            target.add(id);
+            return target;
+        });
+    }
+
+    public void remove(K key, Long id) {
+        if (key == null || id == null) {
+            return;
+        }
+        entries.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Slice of the index between the bounds (inclusive, null = unbounded), in key order.
+     */
+    public NavigableMap<K, ConcurrentSkipListSet<Long>> slice(K min, K max) {
+        if (min != null && max != null) {
+            if (min.compareTo(max) > 0) {
+                return new ConcurrentSkipListMap<>();
+            }
+            return entries.subMap(min, true, max, true);
+        }
+        if (min != null) {
+            return entries.tailMap(min, true);
+        }
+        if (max != null) {
+            return entries.headMap(max, true);
+        }
+        return entries;
+    }
+
+    /**
+     * Number of ids between the bounds, counting no further than limit.
+     * Lets a query planner compare a range against cheaper options in O(limit).
+     */
+    public long countUpTo(K min, K max, long limit) {
+        long count = 0;
+        for (ConcurrentSkipListSet<Long> bucket : slice(min, max).values()) {
+            for (Long ignored : bucket) {
+                if (++count >= limit) {
+                    return count;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Ids between the bounds (inclusive, null = unbounded), ordered by key then id, read from
+     * the live index as they are iterated rather than copied up front.
+     */
+    public Iterable<Long> ids(K min, K max) {
+        NavigableMap<K, ConcurrentSkipListSet<Long>> slice = slice(min, max);
+        return () -> slice.values().stream().flatMap(ConcurrentSkipListSet::stream).iterator();
+    }
+
+    /**
+     * Ids between the bounds (inclusive, null = unbounded), ordered by key then id.
+     */
+    public List<Long> range(K min, K max) {
+        List<Long> ids = new ArrayList<>();
+        for (ConcurrentSkipListSet<Long> bucket : slice(min, max).values()) {
+            ids.addAll(bucket);
+        }
+        return ids;
+    }
+}
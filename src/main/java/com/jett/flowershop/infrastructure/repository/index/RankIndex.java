@@ -0,0 +1,67 @@
+package com.jett.flowershop.infrastructure.repository.index;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Ordered index of (score, id) pairs, highest score first and ties broken by ascending id.
+ * Reading the top K entries costs O(K) regardless of how many entries are indexed.
+ *
+ * Rules:
+ * - The caller remembers the score an id was added with and passes it back to remove
+ */
+public class RankIndex {
+
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+    public void add(long score, long id) {
+        entries.add(new Entry(score, id));
+    }
+
+    public void remove(long score, long id) {
+        entries.remove(new Entry(score, id));
+    }
+
+    /**
+     * Up to k ids, highest score first.
+     */
+    public List<Long> top(int k) {
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(k, 64)));
+        Iterator<Entry> iterator = entries.iterator();
+        while (ids.size() < k && iterator.hasNext()) {
+            ids.add(iterator.next().id);
+        }
+        return ids;
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final long score;
+        private final long id;
+
+        private Entry(long score, long id) {
+            this.score = score;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byScore = Long.compare(other.score, score);
+            return byScore != 0 ? byScore : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry)) return false;
+            Entry entry = (Entry) o;
+            return score == entry.score && id == entry.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(score) * 31 + Long.hashCode(id);
+        }
+    }
+}
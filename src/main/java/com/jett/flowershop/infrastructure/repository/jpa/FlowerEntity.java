@@ -0,0 +1,283 @@
+package com.jett.flowershop.infrastructure.repository.jpa;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * JPA row for a Flower, used only by the JPA-backed FlowerRepository.
+ *
+ * Besides the domain fields it stores the normalized keys the filters compare against
+ * (lower-cased occasion/color/status/name, accent-folded name, price bucket), so every
+ * filter is a plain comparison on an indexed column instead of a function over it.
+ *
+ * Rules:
+ * - Ids come from a pooled sequence, so inserts can be JDBC-batched (IDENTITY cannot)
+ * - Key columns are derived by the repository on every save; never set them elsewhere
+ * - view_count is not updatable, so saving a Flower read before a view flush keeps the flushed views
+ */
+@Entity
+@Table(name = "flowers", indexes = {
+        @Index(name = "idx_flowers_occasion", columnList = "occasion_key"),
+        @Index(name = "idx_flowers_color", columnList = "color_key"),
+        @Index(name = "idx_flowers_price", columnList = "price"),
+        @Index(name = "idx_flowers_status", columnList = "status_key"),
+        @Index(name = "idx_flowers_active_sold", columnList = "status, sold_count"),
+        @Index(name = "idx_flowers_category", columnList = "category_id"),
+        @Index(name = "idx_flowers_folded_name", columnList = "folded_name")
+})
+public class FlowerEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flower_seq")
+    @SequenceGenerator(name = "flower_seq", sequenceName = "flower_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "name_key")
+    private String nameKey;
+
+    @Column(name = "folded_name")
+    private String foldedName;
+
+    @Column(name = "price", precision = 19, scale = 2)
+    private BigDecimal price;
+
+    @Column(name = "price_bucket")
+    private Integer priceBucket;
+
+    @Column(name = "description", length = 4000)
+    private String description;
+
+    @Column(name = "occasion")
+    private String occasion;
+
+    @Column(name = "occasion_key")
+    private String occasionKey;
+
+    @Column(name = "color")
+    private String color;
+
+    @Column(name = "color_key")
+    private String colorKey;
+
+    @Column(name = "image_url", length = 1000)
+    private String imageUrl;
+
+    @Column(name = "stock_quantity")
+    private Integer stockQuantity;
+
+    @Column(name = "is_featured")
+    private Boolean isFeatured;
+
+    @Column(name = "is_hot")
+    private Boolean isHot;
+
+    // Written on insert only; afterwards the relative UPDATE of addViewCounts owns it
+    @Column(name = "view_count", updatable = false)
+    private Integer viewCount;
+
+    @Column(name = "sold_count")
+    private Integer soldCount;
+
+    @Column(name = "status")
+    private String status;
+
+    @Column(name = "status_key")
+    private String statusKey;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getNameKey() {
+        return nameKey;
+    }
+
+    public void setNameKey(String nameKey) {
+        this.nameKey = nameKey;
+    }
+
+    public String getFoldedName() {
+        return foldedName;
+    }
+
+    public void setFoldedName(String foldedName) {
+        this.foldedName = foldedName;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Integer getPriceBucket() {
+        return priceBucket;
+    }
+
+    public void setPriceBucket(Integer priceBucket) {
+        this.priceBucket = priceBucket;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getOccasion() {
+        return occasion;
+    }
+
+    public void setOccasion(String occasion) {
+        this.occasion = occasion;
+    }
+
+    public String getOccasionKey() {
+        return occasionKey;
+    }
+
+    public void setOccasionKey(String occasionKey) {
+        this.occasionKey = occasionKey;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public String getColorKey() {
+        return colorKey;
+    }
+
+    public void setColorKey(String colorKey) {
+        this.colorKey = colorKey;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Boolean getIsFeatured() {
+        return isFeatured;
+    }
+
+    public void setIsFeatured(Boolean isFeatured) {
+        this.isFeatured = isFeatured;
+    }
+
+    public Boolean getIsHot() {
+        return isHot;
+    }
+
+    public void setIsHot(Boolean isHot) {
+        this.isHot = isHot;
+    }
+
+    public Integer getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(Integer viewCount) {
+        this.viewCount = viewCount;
+    }
+
+    public Integer getSoldCount() {
+        return soldCount;
+    }
+
+    public void setSoldCount(Integer soldCount) {
+        this.soldCount = soldCount;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getStatusKey() {
+        return statusKey;
+    }
+
+    public void setStatusKey(String statusKey) {
+        this.statusKey = statusKey;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
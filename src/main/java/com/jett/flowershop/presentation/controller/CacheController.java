@@ -0,0 +1,36 @@
+package com.jett.flowershop.presentation.controller;
+
+import com.jett.flowershop.application.service.CacheStatisticsService;
+import com.jett.flowershop.presentation.response.BaseResponse;
+import com.jett.flowershop.presentation.response.CacheStatisticsResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/cache")
+@Tag(name = "Cache", description = "Repository cache statistics")
+public class CacheController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    public CacheController(CacheStatisticsService cacheStatisticsService) {
+        this.cacheStatisticsService = cacheStatisticsService;
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get cache statistics",
+            description = "Hit/miss/eviction counters per repository cache; empty when flowershop.cache.enabled=false")
+    public ResponseEntity<BaseResponse<List<CacheStatisticsResponse>>> getCacheStatistics() {
+        List<CacheStatisticsResponse> response = cacheStatisticsService.getCacheStatistics().stream()
+                .map(CacheStatisticsResponse::from)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(BaseResponse.success(response, "Cache statistics retrieved successfully"));
+    }
+}
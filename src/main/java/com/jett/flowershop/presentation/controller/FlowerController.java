@@ -4,11 +4,19 @@ import com.jett.flowershop.application.dto.ImageUploadResult;
 import com.jett.flowershop.application.service.FlowerService;
 import com.jett.flowershop.application.service.ImageService;
 import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.domain.query.CursorPage;
+import com.jett.flowershop.domain.query.FlowerFacetCounts;
+import com.jett.flowershop.domain.query.FlowerQuery;
+import com.jett.flowershop.domain.query.FlowerSort;
+import com.jett.flowershop.domain.query.PageResult;
 import com.jett.flowershop.presentation.request.BaseRequest;
 import com.jett.flowershop.presentation.request.CreateFlowerRequest;
 import com.jett.flowershop.presentation.request.UpdateFlowerRequest;
 import com.jett.flowershop.presentation.response.BaseResponse;
+import com.jett.flowershop.presentation.response.CursorPageResponse;
+import com.jett.flowershop.presentation.response.FlowerFacetResponse;
 import com.jett.flowershop.presentation.response.FlowerResponse;
+import com.jett.flowershop.presentation.response.PageResponse;
 import com.jett.flowershop.presentation.response.ResponseStatus;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
@@ -23,6 +31,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 /**
@@ -30,10 +39,13 @@ import java.util.stream.Collectors;
  *
  * Endpoints:
  * - POST /api/flowers - Create flower
- * - GET /api/flowers - Get all flowers
+ * - GET /api/flowers?cursor=&limit= - Get flowers, one keyset page at a time
  * - GET /api/flowers/{id} - Get flower by ID
  * - PUT /api/flowers/{id} - Update flower
  * - DELETE /api/flowers/{id} - Delete flower
+ * - GET /api/flowers/autocomplete?prefix= - Type-ahead suggestions
+ * - GET /api/flowers/query - Combined filters with sort and paging
+ * - GET /api/flowers/facets - Facet counts for the filter sidebar
  *
  * Request/Response:
  * - Uses BaseRequest/BaseResponse wrapper
@@ -127,6 +139,15 @@ public class FlowerController {
             );
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             
+        } catch (RejectedExecutionException e) {
+            ResponseStatus status = new ResponseStatus("01", e.getMessage());
+            BaseResponse<FlowerResponse> response = new BaseResponse<>(
+                    LocalDateTime.now(),
+                    status,
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+
         } catch (Exception e) {
             ResponseStatus status = new ResponseStatus("01", "Error processing image: " + e.getMessage());
             BaseResponse<FlowerResponse> response = new BaseResponse<>(
@@ -178,15 +199,21 @@ public class FlowerController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
-    @Operation(summary = "Get all flowers", description = "Retrieves a list of all flowers in the shop")
+    @Operation(
+        summary = "Get all flowers",
+        description = "Retrieves flowers in ascending id order, limit per page (max 100). "
+                + "Pass nextCursor back as cursor to get the next page"
+    )
     @GetMapping
-    public ResponseEntity<BaseResponse<List<FlowerResponse>>> getAllFlowers() {
+    public ResponseEntity<BaseResponse<CursorPageResponse<FlowerResponse>>> getAllFlowers(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false, defaultValue = "20") Integer limit) {
         
         // Call service
-        List<Flower> flowers = flowerService.getAllFlowers();
+        CursorPage<Flower> flowers = flowerService.getAllFlowers(cursor, limit);
 
-        // Map to response list
-        List<FlowerResponse> flowerResponses = flowers.stream()
+        // Map to response page
+        List<FlowerResponse> flowerResponses = flowers.getItems().stream()
                 .map(flower -> new FlowerResponse(
                         flower.getId(),
                         flower.getName(),
@@ -199,10 +226,10 @@ public class FlowerController {
 
         // Build base response
         ResponseStatus status = new ResponseStatus("00", "Success");
-        BaseResponse<List<FlowerResponse>> response = new BaseResponse<>(
+        BaseResponse<CursorPageResponse<FlowerResponse>> response = new BaseResponse<>(
                 LocalDateTime.now(),
                 status,
-                flowerResponses
+                CursorPageResponse.of(flowers, flowerResponses)
         );
 
         return ResponseEntity.ok(response);
@@ -225,6 +252,9 @@ public class FlowerController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
 
+        // Count the product-page view (buffered, flushed in batches)
+        flowerService.recordFlowerView(id);
+
         // Map to response
         Flower flower = flowerOpt.get();
         FlowerResponse flowerResponse = new FlowerResponse(
@@ -328,16 +358,20 @@ public class FlowerController {
         }
     }
 
-    @Operation(summary = "Search flowers by name", description = "Search flowers by name keyword")
+    @Operation(summary = "Search flowers by name", description = "Search flowers by name keyword; ignoreAccents=true matches \"hoa hong\" to \"hoa hồng\"")
     @GetMapping("/search/name")
-    public ResponseEntity<BaseResponse<List<FlowerResponse>>> searchFlowersByName(
-            @RequestParam String name) {
+    public ResponseEntity<BaseResponse<CursorPageResponse<FlowerResponse>>> searchFlowersByName(
+            @RequestParam String name,
+            @RequestParam(value = "ignoreAccents", required = false, defaultValue = "false") Boolean ignoreAccents,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false, defaultValue = "20") Integer limit) {
         
         // Call service
-        List<Flower> flowers = flowerService.searchFlowersByName(name);
+        CursorPage<Flower> flowers = flowerService.searchFlowersByName(
+                name, Boolean.TRUE.equals(ignoreAccents), cursor, limit);
 
-        // Map to response list
-        List<FlowerResponse> flowerResponses = flowers.stream()
+        // Map to response page
+        List<FlowerResponse> flowerResponses = flowers.getItems().stream()
                 .map(flower -> new FlowerResponse(
                         flower.getId(),
                         flower.getName(),
@@ -350,25 +384,129 @@ public class FlowerController {
 
         // Build base response
         ResponseStatus status = new ResponseStatus("00", "Success");
-        BaseResponse<List<FlowerResponse>> response = new BaseResponse<>(
+        BaseResponse<CursorPageResponse<FlowerResponse>> response = new BaseResponse<>(
                 LocalDateTime.now(),
                 status,
-                flowerResponses
+                CursorPageResponse.of(flowers, flowerResponses)
         );
 
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Autocomplete flower names", description = "Top active flowers whose name starts with the prefix, ranked by sold and view count")
+    @GetMapping("/autocomplete")
+    public ResponseEntity<BaseResponse<List<FlowerResponse>>> autocompleteFlowers(
+            @RequestParam String prefix,
+            @RequestParam(value = "limit", required = false, defaultValue = "10") Integer limit) {
+
+        // Call service
+        List<Flower> flowers = flowerService.autocompleteFlowers(prefix, limit);
+
+        // Map to response list
+        List<FlowerResponse> flowerResponses = flowers.stream()
+                .map(FlowerResponse::from)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(BaseResponse.success(flowerResponses, "Success"));
+    }
+
+    @Operation(
+        summary = "Query flowers with combined filters",
+        description = "Filters by any combination of occasion, color, price range, category, keyword and status. "
+                + "sort: id, price_asc, price_desc, best_selling, most_viewed, newest. page is 0-based, size max 100"
+    )
+    @GetMapping("/query")
+    public ResponseEntity<BaseResponse<PageResponse<FlowerResponse>>> queryFlowers(
+            @RequestParam(required = false) String occasion,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) java.math.BigDecimal minPrice,
+            @RequestParam(required = false) java.math.BigDecimal maxPrice,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false, defaultValue = "0") Integer page,
+            @RequestParam(required = false, defaultValue = "20") Integer size) {
+
+        try {
+            // Map to domain query
+            FlowerQuery query = new FlowerQuery();
+            query.setOccasion(occasion);
+            query.setColor(color);
+            query.setMinPrice(minPrice);
+            query.setMaxPrice(maxPrice);
+            query.setCategoryId(categoryId);
+            query.setKeyword(keyword);
+            query.setStatus(status);
+            query.setSort(FlowerSort.fromString(sort));
+            query.setPage(page);
+            query.setSize(size);
+
+            // Call service
+            PageResult<Flower> result = flowerService.queryFlowers(query);
+
+            // Map to response
+            List<FlowerResponse> flowerResponses = result.getItems().stream()
+                    .map(FlowerResponse::from)
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.ok(BaseResponse.success(PageResponse.of(result, flowerResponses), "Success"));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(BaseResponse.error("02", "Validation error: " + e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Count flowers per facet",
+        description = "Counts per occasion, color, category and price bucket under the same filters as /query. "
+                + "Each facet ignores its own filter so the sidebar can show the other options"
+    )
+    @GetMapping("/facets")
+    public ResponseEntity<BaseResponse<FlowerFacetResponse>> countFlowerFacets(
+            @RequestParam(required = false) String occasion,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) java.math.BigDecimal minPrice,
+            @RequestParam(required = false) java.math.BigDecimal maxPrice,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String status) {
+
+        try {
+            // Map to domain query
+            FlowerQuery query = new FlowerQuery();
+            query.setOccasion(occasion);
+            query.setColor(color);
+            query.setMinPrice(minPrice);
+            query.setMaxPrice(maxPrice);
+            query.setCategoryId(categoryId);
+            query.setKeyword(keyword);
+            query.setStatus(status);
+
+            // Call service
+            FlowerFacetCounts counts = flowerService.countFlowerFacets(query);
+
+            return ResponseEntity.ok(BaseResponse.success(FlowerFacetResponse.from(counts), "Success"));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(BaseResponse.error("02", "Validation error: " + e.getMessage()));
+        }
+    }
+
     @Operation(summary = "Filter flowers by occasion", description = "Filter flowers by occasion")
     @GetMapping("/filter/occasion")
-    public ResponseEntity<BaseResponse<List<FlowerResponse>>> filterFlowersByOccasion(
-            @RequestParam String occasion) {
+    public ResponseEntity<BaseResponse<CursorPageResponse<FlowerResponse>>> filterFlowersByOccasion(
+            @RequestParam String occasion,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false, defaultValue = "20") Integer limit) {
         
         // Call service
-        List<Flower> flowers = flowerService.filterFlowersByOccasion(occasion);
+        CursorPage<Flower> flowers = flowerService.filterFlowersByOccasion(occasion, cursor, limit);
 
-        // Map to response list
-        List<FlowerResponse> flowerResponses = flowers.stream()
+        // Map to response page
+        List<FlowerResponse> flowerResponses = flowers.getItems().stream()
                 .map(flower -> new FlowerResponse(
                         flower.getId(),
                         flower.getName(),
@@ -381,10 +519,10 @@ public class FlowerController {
 
         // Build base response
         ResponseStatus status = new ResponseStatus("00", "Success");
-        BaseResponse<List<FlowerResponse>> response = new BaseResponse<>(
+        BaseResponse<CursorPageResponse<FlowerResponse>> response = new BaseResponse<>(
                 LocalDateTime.now(),
                 status,
-                flowerResponses
+                CursorPageResponse.of(flowers, flowerResponses)
         );
 
         return ResponseEntity.ok(response);
@@ -392,14 +530,16 @@ public class FlowerController {
 
     @Operation(summary = "Filter flowers by color", description = "Filter flowers by color")
     @GetMapping("/filter/color")
-    public ResponseEntity<BaseResponse<List<FlowerResponse>>> filterFlowersByColor(
-            @RequestParam String color) {
+    public ResponseEntity<BaseResponse<CursorPageResponse<FlowerResponse>>> filterFlowersByColor(
+            @RequestParam String color,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false, defaultValue = "20") Integer limit) {
         
         // Call service
-        List<Flower> flowers = flowerService.filterFlowersByColor(color);
+        CursorPage<Flower> flowers = flowerService.filterFlowersByColor(color, cursor, limit);
 
-        // Map to response list
-        List<FlowerResponse> flowerResponses = flowers.stream()
+        // Map to response page
+        List<FlowerResponse> flowerResponses = flowers.getItems().stream()
                 .map(flower -> new FlowerResponse(
                         flower.getId(),
                         flower.getName(),
@@ -412,10 +552,10 @@ public class FlowerController {
 
         // Build base response
         ResponseStatus status = new ResponseStatus("00", "Success");
-        BaseResponse<List<FlowerResponse>> response = new BaseResponse<>(
+        BaseResponse<CursorPageResponse<FlowerResponse>> response = new BaseResponse<>(
                 LocalDateTime.now(),
                 status,
-                flowerResponses
+                CursorPageResponse.of(flowers, flowerResponses)
         );
 
         return ResponseEntity.ok(response);
@@ -423,15 +563,17 @@ public class FlowerController {
 
     @Operation(summary = "Filter flowers by price range", description = "Filter flowers by minimum and maximum price")
     @GetMapping("/filter/price")
-    public ResponseEntity<BaseResponse<List<FlowerResponse>>> filterFlowersByPriceRange(
+    public ResponseEntity<BaseResponse<CursorPageResponse<FlowerResponse>>> filterFlowersByPriceRange(
             @RequestParam(required = false) java.math.BigDecimal minPrice,
-            @RequestParam(required = false) java.math.BigDecimal maxPrice) {
+            @RequestParam(required = false) java.math.BigDecimal maxPrice,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false, defaultValue = "20") Integer limit) {
         
         // Call service
-        List<Flower> flowers = flowerService.filterFlowersByPriceRange(minPrice, maxPrice);
+        CursorPage<Flower> flowers = flowerService.filterFlowersByPriceRange(minPrice, maxPrice, cursor, limit);
 
-        // Map to response list
-        List<FlowerResponse> flowerResponses = flowers.stream()
+        // Map to response page
+        List<FlowerResponse> flowerResponses = flowers.getItems().stream()
                 .map(flower -> new FlowerResponse(
                         flower.getId(),
                         flower.getName(),
@@ -444,10 +586,10 @@ public class FlowerController {
 
         // Build base response
         ResponseStatus status = new ResponseStatus("00", "Success");
-        BaseResponse<List<FlowerResponse>> response = new BaseResponse<>(
+        BaseResponse<CursorPageResponse<FlowerResponse>> response = new BaseResponse<>(
                 LocalDateTime.now(),
                 status,
-                flowerResponses
+                CursorPageResponse.of(flowers, flowerResponses)
         );
 
         return ResponseEntity.ok(response);
@@ -455,14 +597,16 @@ public class FlowerController {
 
     @Operation(summary = "Search flowers by keyword", description = "Search flowers by name or occasion keyword")
     @GetMapping("/search")
-    public ResponseEntity<BaseResponse<List<FlowerResponse>>> searchFlowers(
-            @RequestParam String keyword) {
+    public ResponseEntity<BaseResponse<CursorPageResponse<FlowerResponse>>> searchFlowers(
+            @RequestParam String keyword,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false, defaultValue = "20") Integer limit) {
         
         // Call service
-        List<Flower> flowers = flowerService.searchFlowersByNameOrOccasion(keyword);
+        CursorPage<Flower> flowers = flowerService.searchFlowersByNameOrOccasion(keyword, cursor, limit);
 
-        // Map to response list
-        List<FlowerResponse> flowerResponses = flowers.stream()
+        // Map to response page
+        List<FlowerResponse> flowerResponses = flowers.getItems().stream()
                 .map(flower -> new FlowerResponse(
                         flower.getId(),
                         flower.getName(),
@@ -475,10 +619,10 @@ public class FlowerController {
 
         // Build base response
         ResponseStatus status = new ResponseStatus("00", "Success");
-        BaseResponse<List<FlowerResponse>> response = new BaseResponse<>(
+        BaseResponse<CursorPageResponse<FlowerResponse>> response = new BaseResponse<>(
                 LocalDateTime.now(),
                 status,
-                flowerResponses
+                CursorPageResponse.of(flowers, flowerResponses)
         );
 
         return ResponseEntity.ok(response);
@@ -1,86 +1,82 @@
 package com.jett.flowershop.presentation.controller;
 
-import com.jett.flowershop.application.service.*;
-import com.jett.flowershop.domain.entity.*;
-import com.jett.flowershop.presentation.response.*;
+import com.jett.flowershop.presentation.homepage.HomepageSnapshot;
+import com.jett.flowershop.presentation.homepage.HomepageSnapshotHolder;
+import com.jett.flowershop.presentation.response.HomepageResponse;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @RestController
 @RequestMapping("/api/homepage")
 @Tag(name = "Homepage", description = "Homepage aggregated data APIs")
 public class HomepageController {
-    
-    private final BannerService bannerService;
-    private final CategoryService categoryService;
-    private final FlowerService flowerService;
-    private final ReviewService reviewService;
-    private final ShopInfoService shopInfoService;
 
-    public HomepageController(BannerService bannerService,
-                             CategoryService categoryService,
-                             FlowerService flowerService,
-                             ReviewService reviewService,
-                             ShopInfoService shopInfoService) {
-        this.bannerService = bannerService;
-        this.categoryService = categoryService;
-        this.flowerService = flowerService;
-        this.reviewService = reviewService;
-        this.shopInfoService = shopInfoService;
+    private final HomepageSnapshotHolder homepageSnapshotHolder;
+
+    public HomepageController(HomepageSnapshotHolder homepageSnapshotHolder) {
+        this.homepageSnapshotHolder = homepageSnapshotHolder;
     }
 
+    /**
+     * Writes the snapshot's pre-encoded bytes as-is: gzip when the client accepts it,
+     * 304 without a body when If-None-Match names the current version.
+     */
     @GetMapping
     @Operation(
         summary = "Get homepage data",
-        description = "Retrieve all data needed for the homepage: active banners, featured categories, hot flowers, best-selling flowers, featured reviews, and shop info"
+        description = "Retrieve all data needed for the homepage: active banners, featured categories, hot flowers, best-selling flowers, featured reviews, and shop info. "
+                + "Supports ETag / If-None-Match (304) and gzip",
+        responses = @ApiResponse(responseCode = "200",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = HomepageResponse.class)))
     )
-    public ResponseEntity<BaseResponse<HomepageResponse>> getHomepageData() {
-        // Get active banners
-        List<BannerResponse> activeBanners = bannerService.getActiveBanners().stream()
-                .map(BannerResponse::from)
-                .collect(Collectors.toList());
-
-        // Get featured categories
-        List<CategoryResponse> featuredCategories = categoryService.getFeaturedCategories().stream()
-                .map(CategoryResponse::from)
-                .collect(Collectors.toList());
+    public ResponseEntity<byte[]> getHomepageData(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
-        // Get hot flowers
-        List<FlowerResponse> hotFlowers = flowerService.getHotFlowers().stream()
-                .map(FlowerResponse::from)
-                .collect(Collectors.toList());
+        // Assembled and encoded once per catalog change, not per request
+        HomepageSnapshot snapshot = homepageSnapshotHolder.current();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? snapshot.getGzipEtag() : snapshot.getEtag();
 
-        // Get best-selling flowers (limit to 8)
-        List<FlowerResponse> bestSellingFlowers = flowerService.getBestSellingFlowers(8).stream()
-                .map(FlowerResponse::from)
-                .collect(Collectors.toList());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl(CacheControl.noCache());
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
 
-        // Get featured reviews
-        List<ReviewResponse> featuredReviews = reviewService.getFeaturedReviews().stream()
-                .map(ReviewResponse::from)
-                .collect(Collectors.toList());
-
-        // Get shop info
-        ShopInfo shopInfo = shopInfoService.getShopInfo();
-        ShopInfoResponse shopInfoResponse = ShopInfoResponse.from(shopInfo);
-
-        // Build homepage response
-        HomepageResponse homepageResponse = new HomepageResponse(
-                activeBanners,
-                featuredCategories,
-                hotFlowers,
-                bestSellingFlowers,
-                featuredReviews,
-                shopInfoResponse
-        );
+        if (snapshot.matches(ifNoneMatch)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(snapshot.getGzip(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(snapshot.getJson(), headers, HttpStatus.OK);
+    }
 
-        return ResponseEntity.ok(BaseResponse.success(homepageResponse, "Homepage data retrieved successfully"));
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" means the client refuses gzip
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
@@ -5,6 +5,7 @@ import com.jett.flowershop.domain.entity.Review;
 import com.jett.flowershop.presentation.request.CreateReviewRequest;
 import com.jett.flowershop.presentation.request.BaseRequest;
 import com.jett.flowershop.presentation.response.BaseResponse;
+import com.jett.flowershop.presentation.response.RatingSummaryResponse;
 import com.jett.flowershop.presentation.response.ReviewResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -83,6 +84,14 @@ public class ReviewController {
         return ResponseEntity.ok(BaseResponse.success(reviews, "Reviews retrieved successfully"));
     }
 
+    @GetMapping("/flower/{flowerId}/rating")
+    @Operation(summary = "Get rating summary by flower", description = "Retrieve review count, average rating and star histogram for a specific flower")
+    public ResponseEntity<BaseResponse<RatingSummaryResponse>> getRatingSummary(
+            @PathVariable Long flowerId) {
+        RatingSummaryResponse response = RatingSummaryResponse.from(reviewService.getRatingSummary(flowerId));
+        return ResponseEntity.ok(BaseResponse.success(response, "Rating summary retrieved successfully"));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get review by ID", description = "Retrieve a review by its ID")
     public ResponseEntity<BaseResponse<ReviewResponse>> getReviewById(@PathVariable Long id) {
@@ -0,0 +1,113 @@
+package com.jett.flowershop.presentation.homepage;
+
+import com.jett.flowershop.presentation.response.BaseResponse;
+import com.jett.flowershop.presentation.response.HomepageResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One immutable version of the homepage: the response object plus its pre-encoded UTF-8 JSON
+ * body and a gzip variant, each with a strong ETag.
+ *
+ * The ETag is derived from the JSON bytes, so identical content always gets the same tag.
+ * The gzip variant gets its own tag ("...-gzip") because it is a different representation.
+ *
+ * Rules:
+ * - The byte arrays are shared; callers must not modify them
+ */
+public final class HomepageSnapshot {
+
+    private final BaseResponse<HomepageResponse> response;
+    private final byte[] json;
+    private final byte[] gzip;
+    private final String etag;
+    private final String gzipEtag;
+
+    private HomepageSnapshot(BaseResponse<HomepageResponse> response, byte[] json, byte[] gzip, String tag) {
+        this.response = response;
+        this.json = json;
+        this.gzip = gzip;
+        this.etag = "\"" + tag + "\"";
+        this.gzipEtag = "\"" + tag + "-gzip\"";
+    }
+
+    /**
+     * Encodes the already-serialized JSON body once: gzip it and hash it for the ETag.
+     */
+    public static HomepageSnapshot of(BaseResponse<HomepageResponse> response, byte[] json) {
+        return new HomepageSnapshot(response, json, gzip(json), hash(json));
+    }
+
+    public BaseResponse<HomepageResponse> getResponse() {
+        return response;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getGzipEtag() {
+        return gzipEtag;
+    }
+
+    /**
+     * True when an If-None-Match header names this version (either representation),
+     * so the client's copy is current. Uses the weak comparison RFC 9110 prescribes.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals(gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(32);
+            // 128 bits are plenty to tell homepage versions apart
+            for (int i = 0; i < 16; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16))
+                        .append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
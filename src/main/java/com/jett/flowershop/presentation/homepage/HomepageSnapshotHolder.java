@@ -0,0 +1,321 @@
+package com.jett.flowershop.presentation.homepage;
+
+import com.jett.flowershop.application.event.CatalogChangedEvent;
+import com.jett.flowershop.application.service.BannerService;
+import com.jett.flowershop.application.service.CategoryService;
+import com.jett.flowershop.application.service.FlowerService;
+import com.jett.flowershop.application.service.ReviewService;
+import com.jett.flowershop.application.service.ShopInfoService;
+import com.jett.flowershop.presentation.response.BannerResponse;
+import com.jett.flowershop.presentation.response.BaseResponse;
+import com.jett.flowershop.presentation.response.CategoryResponse;
+import com.jett.flowershop.presentation.response.FlowerResponse;
+import com.jett.flowershop.presentation.response.HomepageResponse;
+import com.jett.flowershop.presentation.response.ReviewResponse;
+import com.jett.flowershop.presentation.response.ShopInfoResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the assembled homepage response and serves it as one shared {@link HomepageSnapshot}.
+ *
+ * The five services are only queried when a {@link CatalogChangedEvent} says something the
+ * homepage shows has changed. The rebuild runs on a single background thread and replaces the
+ * snapshot with one volatile write, so a request costs a pointer read. A burst of changes
+ * collapses into at most one running rebuild plus one queued rebuild.
+ *
+ * The rebuild also serializes the response with the application's JsonMapper and gzips it,
+ * so serving the homepage (or answering 304) never runs Jackson on the request thread.
+ *
+ * The six sections are fetched in parallel on a small dedicated pool, each with its own
+ * timeout, so a rebuild takes as long as the slowest section rather than the sum of all six.
+ * A section that fails or times out keeps its value from the previous snapshot, and another
+ * rebuild is scheduled shortly after so the stale section catches up. A timed-out load is
+ * interrupted; if it ignores the interrupt, later rebuilds skip that section until it returns,
+ * so one stuck service holds at most one pool thread.
+ *
+ * Rules:
+ * - Readers may see the previous snapshot until the rebuild after a change has finished
+ * - The first request builds the snapshot synchronously
+ * - A failed rebuild keeps serving the previous snapshot
+ * - Without a previous snapshot a failed list section is empty; a failed shop info fails the build
+ */
+@Component
+public class HomepageSnapshotHolder {
+
+    private static final int BEST_SELLING_LIMIT = 8;
+
+    private final BannerService bannerService;
+    private final CategoryService categoryService;
+    private final FlowerService flowerService;
+    private final ReviewService reviewService;
+    private final ShopInfoService shopInfoService;
+    private final JsonMapper jsonMapper;
+    private final long sectionTimeoutMs;
+    private final long retryDelayMs;
+
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "homepage-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Shared by all sections; each section has at most one load in flight (see loading)
+    private final ExecutorService sections;
+    // Sections whose load is queued or running
+    private final Set<String> loading = ConcurrentHashMap.newKeySet();
+    // A change arrived that the current snapshot does not reflect yet
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    // A rebuild task is queued or running
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile HomepageSnapshot snapshot;
+
+    public HomepageSnapshotHolder(BannerService bannerService,
+                                  CategoryService categoryService,
+                                  FlowerService flowerService,
+                                  ReviewService reviewService,
+                                  ShopInfoService shopInfoService,
+                                  JsonMapper jsonMapper,
+                                  @Value("${flowershop.homepage.section-timeout-ms:500}") long sectionTimeoutMs,
+                                  @Value("${flowershop.homepage.retry-delay-ms:5000}") long retryDelayMs,
+                                  @Value("${flowershop.homepage.section-threads:6}") int sectionThreads) {
+        this.bannerService = bannerService;
+        this.categoryService = categoryService;
+        this.flowerService = flowerService;
+        this.reviewService = reviewService;
+        this.shopInfoService = shopInfoService;
+        this.jsonMapper = jsonMapper;
+        this.sectionTimeoutMs = sectionTimeoutMs;
+        this.retryDelayMs = retryDelayMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sections = Executors.newFixedThreadPool(sectionThreads, runnable -> {
+            Thread thread = new Thread(runnable, "homepage-section-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The current homepage version; do not modify it.
+     */
+    public HomepageSnapshot current() {
+        HomepageSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                publish(build(null));
+            }
+            return snapshot;
+        }
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        dirty.set(true);
+        scheduleRebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+        sections.shutdownNow();
+    }
+
+    private void scheduleRebuild() {
+        if (scheduled.compareAndSet(false, true)) {
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        try {
+            // Changes arriving during a build set dirty again and cause one more pass
+            while (dirty.getAndSet(false)) {
+                // Serialized with the first synchronous build so an older result never overwrites a newer one
+                synchronized (this) {
+                    publish(build(snapshot));
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Homepage rebuild failed, serving previous snapshot: " + e.getMessage());
+        } finally {
+            scheduled.set(false);
+            // A change that raced with the end of the loop still gets its rebuild
+            if (dirty.get()) {
+                scheduleRebuild();
+            }
+        }
+    }
+
+    private void publish(Build build) {
+        snapshot = build.snapshot;
+        if (build.stale) {
+            rebuilder.schedule(() -> {
+                dirty.set(true);
+                scheduleRebuild();
+            }, retryDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Build build(HomepageSnapshot previous) {
+        HomepageResponse last = previous == null ? null : previous.getResponse().getResponseData();
+        AtomicBoolean stale = new AtomicBoolean();
+
+        CompletableFuture<List<BannerResponse>> activeBanners = section("activeBanners",
+                () -> bannerService.getActiveBanners().stream()
+                        .map(BannerResponse::from)
+                        .collect(Collectors.toList()),
+                last, HomepageResponse::getActiveBanners, List.of(), stale);
+
+        CompletableFuture<List<CategoryResponse>> featuredCategories = section("featuredCategories",
+                () -> categoryService.getFeaturedCategories().stream()
+                        .map(CategoryResponse::from)
+                        .collect(Collectors.toList()),
+                last, HomepageResponse::getFeaturedCategories, List.of(), stale);
+
+        CompletableFuture<List<FlowerResponse>> hotFlowers = section("hotFlowers",
+                () -> flowerService.getHotFlowers().stream()
+                        .map(FlowerResponse::from)
+                        .collect(Collectors.toList()),
+                last, HomepageResponse::getHotFlowers, List.of(), stale);
+
+        CompletableFuture<List<FlowerResponse>> bestSellingFlowers = section("bestSellingFlowers",
+                () -> flowerService.getBestSellingFlowers(BEST_SELLING_LIMIT).stream()
+                        .map(FlowerResponse::from)
+                        .collect(Collectors.toList()),
+                last, HomepageResponse::getBestSellingFlowers, List.of(), stale);
+
+        CompletableFuture<List<ReviewResponse>> featuredReviews = section("featuredReviews",
+                () -> reviewService.getFeaturedReviews().stream()
+                        .map(ReviewResponse::from)
+                        .collect(Collectors.toList()),
+                last, HomepageResponse::getFeaturedReviews, List.of(), stale);
+
+        CompletableFuture<ShopInfoResponse> shopInfo = section("shopInfo",
+                () -> ShopInfoResponse.from(shopInfoService.getShopInfo()),
+                last, HomepageResponse::getShopInfo, null, stale);
+
+        HomepageResponse homepageResponse = new HomepageResponse(
+                Collections.unmodifiableList(activeBanners.join()),
+                Collections.unmodifiableList(featuredCategories.join()),
+                Collections.unmodifiableList(hotFlowers.join()),
+                Collections.unmodifiableList(bestSellingFlowers.join()),
+                Collections.unmodifiableList(featuredReviews.join()),
+                shopInfo.join()
+        );
+        BaseResponse<HomepageResponse> response = BaseResponse.success(homepageResponse, "Homepage data retrieved successfully");
+        return new Build(HomepageSnapshot.of(response, jsonMapper.writeValueAsBytes(response)), stale.get());
+    }
+
+    /**
+     * Loads one section on the section pool, falling back to its value in the last snapshot
+     * when the load fails or exceeds the section timeout. Before the first snapshot the
+     * fallback is {@code empty}; a null {@code empty} fails the build instead.
+     *
+     * On timeout the load is cancelled if it has not started and interrupted if it has.
+     * While an earlier load of the same section is still running, the section is not
+     * loaded again and falls back straight away.
+     */
+    private <T> CompletableFuture<T> section(String name, Supplier<T> loader, HomepageResponse last,
+                                             Function<HomepageResponse, T> lastValue, T empty, AtomicBoolean stale) {
+        if (!loading.add(name)) {
+            return fallback(name, new IllegalStateException("previous load is still running"),
+                    last, lastValue, empty, stale);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // Claimed by whichever runs first: the load, or a timeout that finds it still queued
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<?> task;
+        try {
+            task = sections.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    result.complete(loader.get());
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    loading.remove(name);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(name);
+            return fallback(name, e, last, lastValue, empty, stale);
+        }
+        return result.orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS)
+                .handle((value, error) -> {
+                    if (error == null) {
+                        return value;
+                    }
+                    if (claimed.compareAndSet(false, true)) {
+                        // Never started: it will not run, so the section is free again
+                        loading.remove(name);
+                        task.cancel(false);
+                    } else {
+                        task.cancel(true);
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    return fallbackValue(name, cause, last, lastValue, empty, stale);
+                });
+    }
+
+    private <T> CompletableFuture<T> fallback(String name, Throwable cause, HomepageResponse last,
+                                              Function<HomepageResponse, T> lastValue, T empty, AtomicBoolean stale) {
+        try {
+            return CompletableFuture.completedFuture(fallbackValue(name, cause, last, lastValue, empty, stale));
+        } catch (CompletionException e) {
+            return CompletableFuture.failedFuture(e.getCause());
+        }
+    }
+
+    private <T> T fallbackValue(String name, Throwable cause, HomepageResponse last,
+                                Function<HomepageResponse, T> lastValue, T empty, AtomicBoolean stale) {
+        System.err.println("Homepage section " + name + " "
+                + (cause instanceof TimeoutException ? "timed out" : "failed: " + cause.getMessage())
+                + ", using last good value");
+        stale.set(true);
+        T fallback = last == null ? empty : lastValue.apply(last);
+        if (fallback == null) {
+            throw new CompletionException(cause);
+        }
+        return fallback;
+    }
+
+    /**
+     * A built snapshot and whether any section had to reuse its previous value.
+     */
+    private static final class Build {
+        private final HomepageSnapshot snapshot;
+        private final boolean stale;
+
+        private Build(HomepageSnapshot snapshot, boolean stale) {
+            this.snapshot = snapshot;
+            this.stale = stale;
+        }
+    }
+}
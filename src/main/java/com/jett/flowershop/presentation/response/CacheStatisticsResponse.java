@@ -0,0 +1,94 @@
+package com.jett.flowershop.presentation.response;
+
+import com.jett.flowershop.domain.query.CacheStatistics;
+
+/**
+ * Response object for one repository cache's statistics.
+ *
+ * Fields:
+ * - name (e.g. "flowers")
+ * - size (cached entities)
+ * - hitCount, missCount, hitRate
+ * - evictionCount, evictionWeight (estimated bytes evicted)
+ */
+public class CacheStatisticsResponse {
+
+    private String name;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+    private long evictionWeight;
+
+    public CacheStatisticsResponse() {
+    }
+
+    public static CacheStatisticsResponse from(CacheStatistics statistics) {
+        CacheStatisticsResponse response = new CacheStatisticsResponse();
+        response.setName(statistics.getName());
+        response.setSize(statistics.getSize());
+        response.setHitCount(statistics.getHitCount());
+        response.setMissCount(statistics.getMissCount());
+        response.setHitRate(statistics.getHitRate());
+        response.setEvictionCount(statistics.getEvictionCount());
+        response.setEvictionWeight(statistics.getEvictionWeight());
+        return response;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public void setEvictionCount(long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+
+    public long getEvictionWeight() {
+        return evictionWeight;
+    }
+
+    public void setEvictionWeight(long evictionWeight) {
+        this.evictionWeight = evictionWeight;
+    }
+}
@@ -0,0 +1,73 @@
+package com.jett.flowershop.presentation.response;
+
+import com.jett.flowershop.domain.query.CursorPage;
+
+import java.util.List;
+
+/**
+ * Response object for a keyset (cursor) page of results.
+ *
+ * Fields:
+ * - items (ascending id order)
+ * - nextCursor (pass back as ?cursor= for the next page; null on the last page)
+ * - limit
+ * - hasMore
+ */
+public class CursorPageResponse<T> {
+
+    private List<T> items;
+    private Long nextCursor;
+    private int limit;
+    private boolean hasMore;
+
+    public CursorPageResponse() {
+    }
+
+    public CursorPageResponse(List<T> items, Long nextCursor, int limit, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+        this.hasMore = hasMore;
+    }
+
+    public static <T> CursorPageResponse<T> of(CursorPage<?> page, List<T> items) {
+        return new CursorPageResponse<>(
+                items,
+                page.getNextCursor(),
+                page.getLimit(),
+                page.hasMore()
+        );
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,89 @@
+package com.jett.flowershop.presentation.response;
+
+import com.jett.flowershop.domain.query.FlowerFacetCounts;
+
+import java.util.Map;
+
+/**
+ * Response object for catalog facet counts.
+ *
+ * Fields:
+ * - total (flowers matching every filter)
+ * - occasions (occasion -> count)
+ * - colors (color -> count)
+ * - categories (categoryId -> count)
+ * - priceBuckets (e.g. "100000-200000" -> count)
+ */
+public class FlowerFacetResponse {
+
+    private long total;
+    private Map<String, Long> occasions;
+    private Map<String, Long> colors;
+    private Map<Long, Long> categories;
+    private Map<String, Long> priceBuckets;
+
+    public FlowerFacetResponse() {
+    }
+
+    public FlowerFacetResponse(long total,
+                               Map<String, Long> occasions,
+                               Map<String, Long> colors,
+                               Map<Long, Long> categories,
+                               Map<String, Long> priceBuckets) {
+        this.total = total;
+        this.occasions = occasions;
+        this.colors = colors;
+        this.categories = categories;
+        this.priceBuckets = priceBuckets;
+    }
+
+    public static FlowerFacetResponse from(FlowerFacetCounts counts) {
+        return new FlowerFacetResponse(
+                counts.getTotal(),
+                counts.getOccasions(),
+                counts.getColors(),
+                counts.getCategories(),
+                counts.getPriceBuckets()
+        );
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getOccasions() {
+        return occasions;
+    }
+
+    public void setOccasions(Map<String, Long> occasions) {
+        this.occasions = occasions;
+    }
+
+    public Map<String, Long> getColors() {
+        return colors;
+    }
+
+    public void setColors(Map<String, Long> colors) {
+        this.colors = colors;
+    }
+
+    public Map<Long, Long> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<Long, Long> categories) {
+        this.categories = categories;
+    }
+
+    public Map<String, Long> getPriceBuckets() {
+        return priceBuckets;
+    }
+
+    public void setPriceBuckets(Map<String, Long> priceBuckets) {
+        this.priceBuckets = priceBuckets;
+    }
+}
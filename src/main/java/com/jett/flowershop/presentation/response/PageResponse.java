@@ -0,0 +1,85 @@
+package com.jett.flowershop.presentation.response;
+
+import com.jett.flowershop.domain.query.PageResult;
+
+import java.util.List;
+
+/**
+ * Response object for a page of results.
+ *
+ * Fields:
+ * - items
+ * - page (0-based)
+ * - size
+ * - totalElements
+ * - totalPages
+ */
+public class PageResponse<T> {
+
+    private List<T> items;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    public PageResponse() {
+    }
+
+    public PageResponse(List<T> items, int page, int size, long totalElements, int totalPages) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+    }
+
+    public static <T> PageResponse<T> of(PageResult<?> result, List<T> items) {
+        return new PageResponse<>(
+                items,
+                result.getPage(),
+                result.getSize(),
+                result.getTotalElements(),
+                result.getTotalPages()
+        );
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(int totalPages) {
+        this.totalPages = totalPages;
+    }
+}
@@ -0,0 +1,80 @@
+package com.jett.flowershop.presentation.response;
+
+import com.jett.flowershop.domain.query.RatingSummary;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Response object for a flower's rating summary.
+ *
+ * Fields:
+ * - flowerId
+ * - count, sum, average (of approved reviews rated 1-5)
+ * - histogram (stars "1".."5" -> number of reviews)
+ */
+public class RatingSummaryResponse {
+
+    private Long flowerId;
+    private long count;
+    private long sum;
+    private double average;
+    private Map<Integer, Long> histogram;
+
+    public RatingSummaryResponse() {
+    }
+
+    public static RatingSummaryResponse from(RatingSummary summary) {
+        RatingSummaryResponse response = new RatingSummaryResponse();
+        response.setFlowerId(summary.getFlowerId());
+        response.setCount(summary.getCount());
+        response.setSum(summary.getSum());
+        response.setAverage(summary.getAverage());
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        for (int stars = 1; stars <= 5; stars++) {
+            histogram.put(stars, summary.getStarCount(stars));
+        }
+        response.setHistogram(histogram);
+        return response;
+    }
+
+    public Long getFlowerId() {
+        return flowerId;
+    }
+
+    public void setFlowerId(Long flowerId) {
+        this.flowerId = flowerId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public void setSum(long sum) {
+        this.sum = sum;
+    }
+
+    public double getAverage() {
+        return average;
+    }
+
+    public void setAverage(double average) {
+        this.average = average;
+    }
+
+    public Map<Integer, Long> getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(Map<Integer, Long> histogram) {
+        this.histogram = histogram;
+    }
+}
@@ -0,0 +1,75 @@
+package com.jett.flowershop.application.service;
+
+import com.jett.flowershop.application.event.CatalogChangedEvent;
+import com.jett.flowershop.domain.entity.Banner;
+import com.jett.flowershop.infrastructure.repository.BannerRepositoryImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that banners enter and leave the prepared active list at their start and end
+ * instants, and that each flip is announced with a BANNERS change event.
+ */
+class BannerActivationSchedulerTests {
+
+    @Test
+    void bannersAreFlippedAtTheirWindowBoundaries() throws Exception {
+        AtomicReference<BannerActivationScheduler> scheduler = new AtomicReference<>();
+        AtomicInteger bannerEvents = new AtomicInteger();
+        ApplicationEventPublisher publisher = event -> {
+            if (event instanceof CatalogChangedEvent) {
+                bannerEvents.incrementAndGet();
+                if (scheduler.get() != null) {
+                    scheduler.get().onCatalogChanged((CatalogChangedEvent) event);
+                }
+            }
+        };
+        BannerRepositoryImpl repository = new BannerRepositoryImpl();
+        BannerService bannerService = new BannerService(repository, publisher);
+        scheduler.set(new BannerActivationScheduler(repository, publisher));
+        scheduler.get().start();
+
+        LocalDateTime now = LocalDateTime.now();
+        Banner always = banner("Always", 2, null, null);
+        Banner sale = banner("Flash sale", 1, now.plusNanos(200_000_000), now.plusNanos(500_000_000));
+        bannerService.createBanner(always);
+        bannerService.createBanner(sale);
+        int eventsAfterWrites = bannerEvents.get();
+
+        assertEquals(List.of(always), bannerService.getActiveBanners());
+        waitFor(() -> bannerService.getActiveBanners().size() == 2);
+        assertEquals(List.of(sale, always), bannerService.getActiveBanners());
+        waitFor(() -> bannerService.getActiveBanners().size() == 1);
+        assertEquals(List.of(always), bannerService.getActiveBanners());
+        assertTrue(LocalDateTime.now().isAfter(sale.getEndDate()));
+        assertEquals(eventsAfterWrites + 2, bannerEvents.get());
+        assertTrue(repository.findNextActivationChange().isEmpty());
+        scheduler.get().shutdown();
+    }
+
+    private static Banner banner(String title, int displayOrder, LocalDateTime start, LocalDateTime end) {
+        Banner banner = new Banner();
+        banner.setTitle(title);
+        banner.setDisplayOrder(displayOrder);
+        banner.setIsActive(true);
+        banner.setStartDate(start);
+        banner.setEndDate(end);
+        return banner;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,77 @@
+package com.jett.flowershop.application.service;
+
+import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.infrastructure.repository.FlowerRepositoryImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that buffered views are all flushed, that idle counters are dropped without losing
+ * later views, and that concurrent recorders are counted exactly.
+ */
+class FlowerViewTrackerTests {
+
+    @Test
+    void idleCountersAreDroppedAndLaterViewsStillCount() {
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl();
+        Flower rose = repository.save(newFlower("Rose"));
+        Flower lily = repository.save(newFlower("Lily"));
+        FlowerViewTracker tracker = new FlowerViewTracker(repository, event -> { });
+
+        tracker.recordView(rose.getId());
+        tracker.recordView(rose.getId());
+        tracker.recordView(lily.getId());
+        assertEquals(2, tracker.flush());
+        assertEquals(Integer.valueOf(2), rose.getViewCount());
+
+        // Both counters are idle now: the first flush removes them, the second drains them once more
+        assertEquals(0, tracker.flush());
+        assertEquals(0, tracker.flush());
+
+        tracker.recordView(rose.getId());
+        assertEquals(1, tracker.flush());
+        assertEquals(Integer.valueOf(3), rose.getViewCount());
+        assertEquals(Integer.valueOf(1), lily.getViewCount());
+    }
+
+    @Test
+    void concurrentViewsAreCountedExactly() throws InterruptedException {
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl();
+        List<Flower> flowers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            flowers.add(repository.save(newFlower("Flower " + i)));
+        }
+        FlowerViewTracker tracker = new FlowerViewTracker(repository, event -> { });
+
+        int threads = 8;
+        int viewsPerThread = 20_000;
+        List<Thread> viewers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread viewer = new Thread(() -> {
+                for (int i = 0; i < viewsPerThread; i++) {
+                    tracker.recordView(flowers.get(i % flowers.size()).getId());
+                }
+            });
+            viewers.add(viewer);
+            viewer.start();
+        }
+        for (Thread viewer : viewers) {
+            viewer.join();
+        }
+        tracker.flush();
+
+        for (Flower flower : flowers) {
+            assertEquals(Integer.valueOf(threads * viewsPerThread / flowers.size()), flower.getViewCount());
+        }
+    }
+
+    private static Flower newFlower(String name) {
+        Flower flower = new Flower();
+        flower.setName(name);
+        return flower;
+    }
+}
@@ -0,0 +1,350 @@
+package com.jett.flowershop.application.service;
+
+import com.jett.flowershop.application.dto.ImageUploadResult;
+import org.imgscalr.Scalr;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks the variant widths of an upload, the JPEG fallback without cwebp, WebP variants from a
+ * stub encoder and the JPEG fallback when it fails or hangs past the timeout, subsampled decoding
+ * of wide uploads and the rejection of oversized ones, that a timed-out upload keeps its slot
+ * and directory until its job returns, the direct-resize fallback of the cascade PSNR check,
+ * and that JPEG size fitting picks the highest quality on the 0.05 grid that fits the limit.
+ */
+class ImageServiceTests {
+
+    @Test
+    void uploadWritesCascadedVariantsAsJpegWithoutCwebp() throws IOException {
+        Path root = Files.createTempDirectory("images");
+        byte[] upload = encode(shapes(3000, 2250), 0.90f);
+        ImageService imageService = new ImageService(root.toString(), 2, 6, 0, "cwebp-not-installed", 120, 30);
+        try {
+            ImageUploadResult result = imageService.uploadProductImage(
+                    new MockMultipartFile("file", "rose.jpg", "image/jpeg", upload), "rose");
+
+            assertEquals(3000, width(root, result.getOriginalUrl()));
+            assertEquals(300, width(root, result.getThumbUrl()));
+            assertEquals(600, width(root, result.getMediumUrl()));
+            assertEquals(1200, width(root, result.getLargeUrl()));
+            for (String url : List.of(result.getThumbUrl(), result.getMediumUrl(), result.getLargeUrl())) {
+                assertTrue(url.endsWith("/hoa.jpg"), url);
+            }
+        } finally {
+            imageService.shutdown();
+        }
+    }
+
+    @Test
+    void webpFromTheEncoderIsKeptWhenItFits() throws IOException {
+        assumeTrue(Files.isExecutable(Path.of("/bin/sh")), "needs /bin/sh for the stub encoder");
+        Path root = Files.createTempDirectory("images");
+        Path cwebp = stubEncoder(root, "cat > /dev/null; printf 'RIFF\\024\\000\\000\\000WEBPVP8 stub'");
+        ImageService imageService = new ImageService(root.toString(), 2, 6, 0, cwebp.toString(), 120, 30);
+        try {
+            ImageUploadResult result = imageService.uploadProductImage(jpeg(encode(shapes(1600, 1200), 0.90f)), "rose");
+
+            for (String url : List.of(result.getThumbUrl(), result.getMediumUrl(), result.getLargeUrl())) {
+                assertTrue(url.endsWith("/hoa.webp"), url);
+                byte[] webp = Files.readAllBytes(root.resolve(url.substring(1)));
+                assertEquals("RIFF", new String(webp, 0, 4, StandardCharsets.US_ASCII));
+                assertEquals("WEBP", new String(webp, 8, 4, StandardCharsets.US_ASCII));
+            }
+        } finally {
+            imageService.shutdown();
+        }
+    }
+
+    @Test
+    void failedEncoderFallsBackToJpeg() throws IOException {
+        assumeTrue(Files.isExecutable(Path.of("/bin/sh")), "needs /bin/sh for the stub encoder");
+        Path root = Files.createTempDirectory("images");
+        Path cwebp = stubEncoder(root, "cat > /dev/null; exit 3");
+        ImageService imageService = new ImageService(root.toString(), 2, 6, 0, cwebp.toString(), 120, 30);
+        try {
+            ImageUploadResult result = imageService.uploadProductImage(jpeg(encode(shapes(1600, 1200), 0.90f)), "rose");
+
+            for (String url : List.of(result.getThumbUrl(), result.getMediumUrl(), result.getLargeUrl())) {
+                assertTrue(url.endsWith("/hoa.jpg"), url);
+            }
+            assertEquals(1200, width(root, result.getLargeUrl()));
+        } finally {
+            imageService.shutdown();
+        }
+    }
+
+    @Test
+    void hungEncoderIsKilledAtTheTimeoutAndFallsBackToJpeg() throws IOException {
+        assumeTrue(Files.isExecutable(Path.of("/bin/sh")), "needs /bin/sh for the stub encoder");
+        Path root = Files.createTempDirectory("images");
+        // Neither reads the rest of stdin nor writes, so both pipe threads stay blocked until the kill
+        Path cwebp = stubEncoder(root, "exec sleep 60");
+        ImageService imageService = new ImageService(root.toString(), 2, 6, 0, cwebp.toString(), 120, 1);
+        try {
+            long start = System.nanoTime();
+            ImageUploadResult result = imageService.uploadProductImage(jpeg(encode(shapes(1600, 1200), 0.90f)), "rose");
+            long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+
+            for (String url : List.of(result.getThumbUrl(), result.getMediumUrl(), result.getLargeUrl())) {
+                assertTrue(url.endsWith("/hoa.jpg"), url);
+            }
+            // Three 1 s timeouts on two workers, far below the 60 s the stub would sleep
+            assertTrue(elapsedSeconds < 15, () -> "upload took " + elapsedSeconds + " s");
+        } finally {
+            imageService.shutdown();
+        }
+    }
+
+    @Test
+    void wideUploadIsDecodedSubsampledToAtLeastTwiceTheLargeWidth() throws IOException {
+        Path root = Files.createTempDirectory("images");
+        byte[] upload = encode(shapes(5000, 3750), 0.90f);
+        ImageService imageService = new ImageService(root.toString(), 2, 6, 0, "cwebp-not-installed", 120, 30);
+        try {
+            // 5000 / 2400 keeps every second pixel
+            BufferedImage decoded = imageService.readImage(jpeg(upload));
+            assertEquals(2500, decoded.getWidth());
+            assertEquals(1875, decoded.getHeight());
+
+            ImageUploadResult result = imageService.uploadProductImage(jpeg(upload), "peony");
+            assertEquals(5000, width(root, result.getOriginalUrl()));
+            assertEquals(300, width(root, result.getThumbUrl()));
+            assertEquals(600, width(root, result.getMediumUrl()));
+            assertEquals(1200, width(root, result.getLargeUrl()));
+        } finally {
+            imageService.shutdown();
+        }
+    }
+
+    @Test
+    void oversizedHeaderIsRejectedBeforeDecoding() throws IOException {
+        Path root = Files.createTempDirectory("images");
+        // Header of a 2400 x 20000 PNG without pixel data: 48M pixels even at full width
+        byte[] header = pngHeader(2400, 20_000);
+        ImageService imageService = new ImageService(root.toString(), 2, 6, 0, "cwebp-not-installed", 120, 30);
+        try {
+            IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class,
+                    () -> imageService.uploadProductImage(
+                            new MockMultipartFile("file", "huge.png", "image/png", header), "huge"));
+            assertEquals("Image dimensions 2400x20000 are not supported", rejected.getMessage());
+            assertFalse(Files.exists(root.resolve("uploads")));
+        } finally {
+            imageService.shutdown();
+        }
+    }
+
+    @Test
+    void timedOutUploadHoldsItsSlotAndDirectoryUntilItsJobFinishes() throws Exception {
+        Path root = Files.createTempDirectory("images");
+        byte[] upload = encode(shapes(1000, 750), 0.90f);
+        CountDownLatch resizeMayFinish = new CountDownLatch(1);
+        // One worker and a queue of two leave a single upload slot; uploads time out after 1 s
+        ImageService imageService = new ImageService(root.toString(), 1, 2, 0, "cwebp-not-installed", 1, 30) {
+            @Override
+            List<BufferedImage> resizeCascade(BufferedImage originalImage) {
+                // Like Scalr, keeps going when the timed-out upload gives up on it
+                awaitUninterruptibly(resizeMayFinish);
+                return super.resizeCascade(originalImage);
+            }
+        };
+        try {
+            assertThrows(IOException.class, () -> imageService.uploadProductImage(jpeg(upload), "rose"));
+            Path rose = uploadDirectory(root, "rose");
+            assertTrue(Files.exists(rose.resolve("original/hoa.jpg")));
+            // The resize still occupies the pool, so the slot has not been given back
+            assertThrows(RejectedExecutionException.class,
+                    () -> imageService.uploadProductImage(jpeg(upload), "tulip"));
+
+            resizeMayFinish.countDown();
+            ImageUploadResult tulip = null;
+            for (int i = 0; i < 200 && tulip == null; i++) {
+                try {
+                    tulip = imageService.uploadProductImage(jpeg(upload), "tulip");
+                } catch (RejectedExecutionException e) {
+                    Thread.sleep(10);
+                }
+            }
+            assertEquals(300, width(root, tulip.getThumbUrl()));
+            // Deleted once the resize returned, before the slot was released
+            assertFalse(Files.exists(rose));
+        } finally {
+            imageService.shutdown();
+        }
+    }
+
+    @Test
+    void cascadeFallsBackToDirectResizeBelowMinPsnr() {
+        BufferedImage original = shapes(3000, 2250);
+        BufferedImage directMedium = Scalr.apply(
+                Scalr.resize(original, Scalr.Method.QUALITY, Scalr.Mode.FIT_TO_WIDTH, 600), Scalr.OP_ANTIALIAS);
+
+        ImageService cascading = new ImageService(1, 1, 0, "cwebp-not-installed");
+        // No cascade reaches this PSNR, so medium and thumb are always resized directly
+        ImageService strict = new ImageService(1, 1, 1_000, "cwebp-not-installed");
+        try {
+            List<BufferedImage> cascaded = cascading.resizeCascade(original);
+            List<BufferedImage> checked = strict.resizeCascade(original);
+
+            assertFalse(samePixels(directMedium, cascaded.get(1)));
+            assertTrue(samePixels(directMedium, checked.get(1)));
+            assertEquals(300, checked.get(0).getWidth());
+            // Large is never compared; it is the first resize of both paths
+            assertTrue(samePixels(cascaded.get(2), checked.get(2)));
+        } finally {
+            cascading.shutdown();
+            strict.shutdown();
+        }
+    }
+
+    @Test
+    void jpegSizeFittingKeepsTheHighestGridQualityThatFits() throws IOException {
+        BufferedImage noisy = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(3);
+        for (int y = 0; y < noisy.getHeight(); y++) {
+            for (int x = 0; x < noisy.getWidth(); x++) {
+                noisy.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        byte[] at55 = encode(noisy, 0.55f);
+        byte[] at60 = encode(noisy, 0.60f);
+        long limit = (at55.length + at60.length) / 2;
+
+        ImageService imageService = new ImageService(1, 1, 0, "cwebp-not-installed");
+        try {
+            byte[] fitted = imageService.encodeJPEGWithSizeLimit(noisy, "large", limit);
+            assertTrue(fitted.length <= limit);
+            assertTrue(at60.length > limit);
+            assertArrayEquals(at55, fitted);
+        } finally {
+            imageService.shutdown();
+        }
+    }
+
+    private static byte[] pngHeader(int width, int height) {
+        ByteBuffer ihdr = ByteBuffer.allocate(4 + 13);
+        ihdr.put("IHDR".getBytes(StandardCharsets.US_ASCII)).putInt(width).putInt(height)
+                .put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0);
+        CRC32 crc = new CRC32();
+        crc.update(ihdr.array());
+        return ByteBuffer.allocate(8 + 4 + ihdr.capacity() + 4)
+                .put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'})
+                .putInt(13)
+                .put(ihdr.array())
+                .putInt((int) crc.getValue())
+                .array();
+    }
+
+    /**
+     * Writes an executable stand-in for cwebp. It answers the 1x1 probe of the constructor
+     * with a WebP header, so WebP stays enabled, and runs the given body for every other image.
+     */
+    private static Path stubEncoder(Path directory, String body) throws IOException {
+        Path script = directory.resolve("cwebp-stub.sh");
+        Files.writeString(script, String.join("\n",
+                "#!/bin/sh",
+                "if [ \"$(head -n 2 | tail -n 1)\" = \"1 1\" ]; then",
+                "  cat > /dev/null; printf 'RIFF\\004\\000\\000\\000WEBP'; exit 0",
+                "fi",
+                body,
+                ""));
+        assertTrue(script.toFile().setExecutable(true));
+        return script;
+    }
+
+    private static MockMultipartFile jpeg(byte[] bytes) {
+        return new MockMultipartFile("file", "hoa.jpg", "image/jpeg", bytes);
+    }
+
+    private static Path uploadDirectory(Path root, String slug) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(path -> path.getFileName().toString().equals(slug)).findFirst().orElseThrow();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BufferedImage shapes(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        Random random = new Random(5);
+        for (int i = 0; i < 2_000; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.fillOval(random.nextInt(width), random.nextInt(height), 5 + random.nextInt(200), 5 + random.nextInt(200));
+        }
+        g.dispose();
+        return image;
+    }
+
+    private static int width(Path root, String url) throws IOException {
+        return ImageIO.read(root.resolve(url.substring(1)).toFile()).getWidth();
+    }
+
+    private static boolean samePixels(BufferedImage a, BufferedImage b) {
+        if (a.getWidth() != b.getWidth() || a.getHeight() != b.getHeight()) {
+            return false;
+        }
+        int width = a.getWidth();
+        int height = a.getHeight();
+        return Arrays.equals(a.getRGB(0, 0, width, height, null, 0, width),
+                b.getRGB(0, 0, width, height, null, 0, width));
+    }
+
+    private static byte[] encode(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ImageOutputStream output = new MemoryCacheImageOutputStream(buffer)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,86 @@
+package com.jett.flowershop.infrastructure.cache;
+
+import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.domain.query.CacheStatistics;
+import com.jett.flowershop.infrastructure.repository.FlowerRepositoryImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the caching decorator serves repeated reads from memory, invalidates on
+ * every write and reports its counters.
+ */
+class CachingFlowerRepositoryTests {
+
+    @Test
+    void repeatedReadsHitTheCacheAndWritesInvalidate() {
+        AtomicInteger loads = new AtomicInteger();
+        FlowerRepositoryImpl backing = new FlowerRepositoryImpl() {
+            @Override
+            public java.util.Optional<Flower> findById(Long id) {
+                loads.incrementAndGet();
+                return super.findById(id);
+            }
+        };
+        EntityCache<Flower> cache = new EntityCache<>("flowers", 1024 * 1024, CachingFlowerRepository::weigh);
+        CachingFlowerRepository repository = new CachingFlowerRepository(backing, cache);
+
+        Flower rose = repository.save(newFlower("Rose"));
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Rose", repository.findById(rose.getId()).orElseThrow().getName());
+        }
+        assertEquals(1, loads.get());
+
+        rose.setName("Red Rose");
+        repository.save(rose);
+        assertEquals("Red Rose", repository.findById(rose.getId()).orElseThrow().getName());
+        assertEquals(2, loads.get());
+
+        repository.addViewCounts(Map.of(rose.getId(), 5L));
+        assertEquals(Integer.valueOf(5), repository.findById(rose.getId()).orElseThrow().getViewCount());
+        assertEquals(3, loads.get());
+
+        repository.deleteById(rose.getId());
+        assertFalse(repository.findById(rose.getId()).isPresent());
+        assertFalse(repository.existsById(rose.getId()));
+
+        // Only findById counts; the existsById check above is not a hit or a miss
+        CacheStatistics statistics = cache.statistics();
+        assertEquals(9L, statistics.getHitCount());
+        assertEquals(4L, statistics.getMissCount());
+        assertEquals(0L, statistics.getSize());
+    }
+
+    @Test
+    void weightBoundEvictsEntries() {
+        FlowerRepositoryImpl backing = new FlowerRepositoryImpl();
+        // Room for only a handful of flowers
+        EntityCache<Flower> cache = new EntityCache<>("flowers", 4 * 1024, CachingFlowerRepository::weigh);
+        CachingFlowerRepository repository = new CachingFlowerRepository(backing, cache);
+        for (int i = 0; i < 100; i++) {
+            repository.save(newFlower("Tulip " + i));
+        }
+        for (long id = 1; id <= 100; id++) {
+            assertTrue(repository.findById(id).isPresent());
+        }
+
+        CacheStatistics statistics = cache.statistics();
+        assertTrue(statistics.getSize() < 100, "cache should stay within its weight bound");
+        assertTrue(statistics.getEvictionCount() > 0);
+    }
+
+    private static Flower newFlower(String name) {
+        Flower flower = new Flower();
+        flower.setName(name);
+        flower.setDescription("Fresh " + name);
+        flower.setOccasion("Birthday");
+        flower.setColor("Red");
+        return flower;
+    }
+}
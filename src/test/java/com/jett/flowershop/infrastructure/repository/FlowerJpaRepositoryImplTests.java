@@ -0,0 +1,161 @@
+package com.jett.flowershop.infrastructure.repository;
+
+import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.domain.query.CursorPage;
+import com.jett.flowershop.domain.query.FlowerFacetCounts;
+import com.jett.flowershop.domain.query.FlowerQuery;
+import com.jett.flowershop.domain.query.FlowerSort;
+import com.jett.flowershop.domain.query.PageResult;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs FlowerJpaRepositoryImpl against H2: save and find, filters, keyset pages, and view
+ * counts that a later save of an older copy must not overwrite.
+ */
+@DataJpaTest(properties = "flowershop.catalog.store=jpa")
+@Import(FlowerJpaRepositoryImpl.class)
+class FlowerJpaRepositoryImplTests {
+
+    @Autowired
+    private FlowerJpaRepositoryImpl repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void saveAndFindRoundTripAndUpdateInPlace() {
+        Flower rose = FlowerRepositoryImplIndexTests.newFlower("Bó Hoa Hồng Đỏ", "Valentine", "Red");
+        rose.setPrice(new BigDecimal("450000.00"));
+        rose.setStatus("ACTIVE");
+        rose.setViewCount(0);
+        repository.save(rose);
+        assertTrue(rose.getId() != null);
+        clear();
+
+        Flower found = repository.findById(rose.getId()).orElseThrow();
+        assertEquals("Bó Hoa Hồng Đỏ", found.getName());
+        assertEquals(0, new BigDecimal("450000").compareTo(found.getPrice()));
+        assertTrue(repository.existsById(rose.getId()));
+
+        found.setColor("Pink");
+        repository.save(found);
+        clear();
+        FlowerQuery pink = new FlowerQuery();
+        pink.setColor(" PINK");
+        assertEquals(List.of(rose.getId()), ids(repository.findPage(pink, null, 10).getItems()));
+        FlowerQuery red = new FlowerQuery();
+        red.setColor("red");
+        assertTrue(repository.findPage(red, null, 10).getItems().isEmpty());
+        FlowerQuery named = new FlowerQuery();
+        named.setName("hoa hong");
+        named.setIgnoreAccents(true);
+        assertEquals(List.of(rose.getId()), ids(repository.findPage(named, null, 10).getItems()));
+
+        repository.deleteById(rose.getId());
+        clear();
+        assertTrue(repository.findById(rose.getId()).isEmpty());
+    }
+
+    @Test
+    void filtersAndKeysetPagesMatchTheCatalog() {
+        List<Flower> flowers = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Flower flower = FlowerRepositoryImplIndexTests.newFlower("Tulip " + i, i % 3 == 0 ? "Wedding" : "Birthday",
+                    i % 2 == 0 ? "White" : "Yellow");
+            flower.setPrice(BigDecimal.valueOf(100_000L + i * 10_000L));
+            flower.setStatus("ACTIVE");
+            flowers.add(flower);
+        }
+        repository.saveAll(flowers);
+        clear();
+
+        List<Long> expected = flowers.stream()
+                .filter(f -> f.getOccasion().equals("Wedding") && f.getColor().equals("White"))
+                .filter(f -> f.getPrice().compareTo(BigDecimal.valueOf(1_000_000)) <= 0)
+                .map(Flower::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        FlowerQuery query = new FlowerQuery();
+        query.setOccasion("wedding");
+        query.setColor("WHITE");
+        query.setMaxPrice(BigDecimal.valueOf(1_000_000));
+
+        List<Long> walked = new ArrayList<>();
+        Long cursor = null;
+        do {
+            CursorPage<Flower> page = repository.findPage(query, cursor, 4);
+            assertTrue(page.getItems().size() <= 4);
+            walked.addAll(ids(page.getItems()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(expected, walked);
+
+        query.setSort(FlowerSort.PRICE_DESC);
+        query.setSize(5);
+        PageResult<Flower> first = repository.query(query);
+        assertEquals((long) expected.size(), first.getTotalElements());
+        assertEquals(expected.get(expected.size() - 1), first.getItems().get(0).getId());
+
+        FlowerFacetCounts counts = repository.facetCounts(query);
+        assertEquals((long) expected.size(), counts.getTotal());
+        assertEquals(Long.valueOf(flowers.stream()
+                .filter(f -> f.getOccasion().equals("Wedding"))
+                .filter(f -> f.getPrice().compareTo(BigDecimal.valueOf(1_000_000)) <= 0)
+                .filter(f -> f.getColor().equals("Yellow"))
+                .count()), counts.getColors().get("yellow"));
+        FlowerQuery wedding = new FlowerQuery();
+        wedding.setOccasion("wedding");
+        assertEquals(40L, repository.query(wedding).getTotalElements());
+        assertNull(repository.findPage(new FlowerQuery(), flowers.get(119).getId(), 10).getNextCursor());
+    }
+
+    @Test
+    void savingAnOlderCopyKeepsFlushedViewCounts() {
+        Flower lily = FlowerRepositoryImplIndexTests.newFlower("Lily", "Opening", "White");
+        lily.setStatus("ACTIVE");
+        lily.setIsHot(true);
+        lily.setViewCount(3);
+        repository.save(lily);
+        clear();
+
+        // An admin edit reads the flower, views are flushed meanwhile, then the edit is saved
+        Flower edited = repository.findById(lily.getId()).orElseThrow();
+        repository.addViewCounts(Map.of(lily.getId(), 5L));
+        clear();
+        edited.setName("Lily Vase");
+        repository.save(edited);
+        clear();
+
+        Flower stored = repository.findById(lily.getId()).orElseThrow();
+        assertEquals("Lily Vase", stored.getName());
+        assertEquals(Integer.valueOf(8), stored.getViewCount());
+        assertEquals(List.of(lily.getId()), ids(repository.findHotFlowers()));
+    }
+
+    /**
+     * Writes pending changes and empties the persistence context, so the next read and the
+     * JDBC view-count update both see the database rows.
+     */
+    private void clear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static List<Long> ids(List<Flower> flowers) {
+        return flowers.stream().map(Flower::getId).collect(Collectors.toList());
+    }
+}
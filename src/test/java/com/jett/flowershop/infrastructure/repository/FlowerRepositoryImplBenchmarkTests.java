@@ -0,0 +1,142 @@
+package com.jett.flowershop.infrastructure.repository;
+
+import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.domain.query.FlowerQuery;
+import com.jett.flowershop.domain.query.FlowerSort;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Times the indexed paths of FlowerRepositoryImpl against the previous full scans on a large
+ * catalog. Wall-clock comparisons depend on the machine, so these run only with the benchmark
+ * profile (mvn test -Pbenchmark); result equality is checked by {@link FlowerRepositoryImplIndexTests}.
+ */
+@Tag("benchmark")
+class FlowerRepositoryImplBenchmarkTests {
+
+    private static final int CATALOG_SIZE = 100_000;
+    private static final int ITERATIONS = 50;
+    private static final int WARMUP_ITERATIONS = 10;
+
+    // Built once and only read by the tests below
+    private static FlowerRepositoryImpl repository;
+
+    @BeforeAll
+    static void populateCatalog() {
+        repository = FlowerRepositoryImplIndexTests.populate(CATALOG_SIZE);
+    }
+
+    @Test
+    void occasionIndexBeatsFullScan() {
+        long scanNanos = time(() -> {
+            for (String occasion : FlowerRepositoryImplIndexTests.OCCASIONS) {
+                FlowerRepositoryImplIndexTests.scanByOccasion(repository, occasion);
+            }
+        });
+        long indexNanos = time(() -> {
+            for (String occasion : FlowerRepositoryImplIndexTests.OCCASIONS) {
+                FlowerRepositoryImplIndexTests.walk(repository, FlowerRepositoryImplIndexTests.byOccasion(occasion));
+            }
+        });
+        assertFaster("occasion pages", scanNanos, indexNanos);
+    }
+
+    @Test
+    void gramSearchBeatsFullScan() {
+        long scanNanos = time(() -> FlowerRepositoryImplIndexTests.scanByName(repository, "tulip bunch 77"));
+        FlowerQuery query = FlowerRepositoryImplIndexTests.byName("tulip bunch 77", false);
+        long indexNanos = time(() -> FlowerRepositoryImplIndexTests.walk(repository, query));
+        assertFaster("name pages", scanNanos, indexNanos);
+    }
+
+    @Test
+    void plannedQueryBeatsFullScan() {
+        FlowerQuery query = new FlowerQuery();
+        query.setOccasion("wedding");
+        query.setColor("WHITE");
+        query.setKeyword("gerbera");
+        query.setSort(FlowerSort.PRICE_DESC);
+        query.setSize(7);
+
+        long scanNanos = time(() -> repository.findAll().stream()
+                .filter(f -> f.getOccasion().equalsIgnoreCase("wedding") && f.getColor().equalsIgnoreCase("white"))
+                .filter(f -> f.getName().toLowerCase().contains("gerbera") || f.getOccasion().toLowerCase().contains("gerbera"))
+                .sorted(Comparator.comparing(Flower::getPrice).reversed().thenComparing(Flower::getId))
+                .limit(7)
+                .collect(Collectors.toList()));
+        long queryNanos = time(() -> repository.query(query));
+        assertFaster("query", scanNanos, queryNanos);
+    }
+
+    @Test
+    void bitmapFacetsBeatOneScanPerValue() {
+        FlowerQuery query = new FlowerQuery();
+        query.setOccasion("Birthday");
+        query.setColor("red");
+        query.setMaxPrice(BigDecimal.valueOf(300_000));
+        Predicate<Flower> birthday = f -> f.getOccasion().equalsIgnoreCase("birthday");
+        Predicate<Flower> cheap = f -> f.getPrice().compareTo(BigDecimal.valueOf(300_000)) <= 0;
+
+        long scanNanos = time(() -> {
+            for (String color : FlowerRepositoryImplIndexTests.COLORS) {
+                repository.findAll().stream().filter(birthday.and(cheap))
+                        .filter(f -> f.getColor().equalsIgnoreCase(color)).count();
+            }
+        });
+        long facetNanos = time(() -> repository.facetCounts(query));
+        assertFaster("facetCounts", scanNanos, facetNanos);
+    }
+
+    @Test
+    void keysetPageBeatsCopyingTheCatalog() {
+        long deepCursor = CATALOG_SIZE - 50L;
+        long scanNanos = time(() -> repository.findAll().stream()
+                .sorted(Comparator.comparing(Flower::getId))
+                .filter(f -> f.getId() > deepCursor)
+                .limit(20)
+                .collect(Collectors.toList()));
+        long pageNanos = time(() -> repository.findPage(new FlowerQuery(), deepCursor, 20));
+        assertFaster("findPage", scanNanos, pageNanos);
+    }
+
+    @Test
+    void priceFilterPageBeatsSortingTheRange() {
+        FlowerQuery query = new FlowerQuery();
+        query.setMinPrice(BigDecimal.valueOf(200_000));
+        query.setMaxPrice(BigDecimal.valueOf(1_500_000));
+        // The previous page sorted the whole price slice by id before taking the first page
+        long scanNanos = time(() -> new TreeSet<>(repository.findAll().stream()
+                .filter(f -> f.getPrice().compareTo(BigDecimal.valueOf(200_000)) >= 0
+                        && f.getPrice().compareTo(BigDecimal.valueOf(1_500_000)) <= 0)
+                .map(Flower::getId)
+                .collect(Collectors.toList())).stream().limit(20).collect(Collectors.toList()));
+        long pageNanos = time(() -> repository.findPage(query, null, 20));
+        assertFaster("price findPage", scanNanos, pageNanos);
+    }
+
+    private static void assertFaster(String operation, long scanNanos, long indexedNanos) {
+        assertTrue(indexedNanos < scanNanos, String.format("%s over %d flowers: scan %.3f ms/op, indexed %.3f ms/op",
+                operation, CATALOG_SIZE, scanNanos / 1e6 / ITERATIONS, indexedNanos / 1e6 / ITERATIONS));
+    }
+
+    private static long time(Runnable body) {
+        // Warm up so JIT compilation is not charged to either side
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            body.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            body.run();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,511 @@
+package com.jett.flowershop.infrastructure.repository;
+
+import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.domain.query.CursorPage;
+import com.jett.flowershop.domain.query.FlowerFacetCounts;
+import com.jett.flowershop.domain.query.FlowerQuery;
+import com.jett.flowershop.domain.query.FlowerSort;
+import com.jett.flowershop.domain.query.PageResult;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the indexed filter paths of FlowerRepositoryImpl return the same results as the
+ * previous full-scan implementation, and that the indexes stay consistent on update/delete.
+ * Timing comparisons live in {@link FlowerRepositoryImplBenchmarkTests}.
+ */
+class FlowerRepositoryImplIndexTests {
+
+    private static final int CATALOG_SIZE = 10_000;
+    static final String[] OCCASIONS = {
+            "Birthday", "Wedding", "Anniversary", "Funeral", "Valentine", "Graduation",
+            "Opening", "Mother's Day", "Teacher's Day", "Women's Day", "Tet", "Get Well",
+            "Congratulations", "Sympathy", "Thank You", "Love", "Apology", "New Baby",
+            "Christmas", "Everyday"
+    };
+    private static final String[] KINDS = {
+            "Rose", "Tulip", "Lily", "Orchid", "Sunflower", "Daisy", "Carnation", "Peony",
+            "Hydrangea", "Lotus", "Chrysanthemum", "Gerbera", "Baby Breath", "Lavender", "Iris"
+    };
+    private static final String[] STYLES = {
+            "Bouquet", "Basket", "Box", "Vase", "Stand", "Bunch", "Hand-tied", "Arrangement"
+    };
+    static final String[] COLORS = {
+            "Red", "Pink", "White", "Yellow", "Purple", "Orange",
+            "Blue", "Mixed", "Peach", "Green", "Cream", "Lavender"
+    };
+
+    @Test
+    void indexedFiltersMatchFullScan() {
+        FlowerRepositoryImpl repository = populate(CATALOG_SIZE);
+
+        for (String occasion : OCCASIONS) {
+            assertEquals(ids(scanByOccasion(repository, occasion)), ids(walk(repository, byOccasion(occasion))));
+        }
+        for (String color : COLORS) {
+            assertEquals(ids(scanByColor(repository, color)), ids(walk(repository, byColor(color))));
+        }
+    }
+
+    @Test
+    void indexFollowsOccasionAndColorChanges() {
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl();
+        Flower flower = newFlower("Rose", "Birthday", "Red");
+        repository.save(flower);
+
+        // Services mutate the stored instance in place before saving
+        flower.setOccasion("Wedding");
+        flower.setColor("White");
+        repository.save(flower);
+
+        assertTrue(walk(repository, byOccasion("birthday")).isEmpty());
+        assertTrue(walk(repository, byColor("red")).isEmpty());
+        assertEquals(List.of(flower), walk(repository, byOccasion(" WEDDING ")));
+        assertEquals(List.of(flower), walk(repository, byColor("white")));
+
+        repository.deleteById(flower.getId());
+        assertTrue(walk(repository, byOccasion("wedding")).isEmpty());
+        assertTrue(walk(repository, byColor("white")).isEmpty());
+    }
+
+    @Test
+    void priceRangeIsOrderedByPriceAndFollowsPriceChanges() {
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl();
+        Flower cheap = newFlower("Daisy", "Everyday", "White");
+        cheap.setPrice(new BigDecimal("150000"));
+        Flower expensive = newFlower("Orchid", "Opening", "Purple");
+        expensive.setPrice(new BigDecimal("900000"));
+        Flower middle = newFlower("Tulip", "Love", "Pink");
+        middle.setPrice(new BigDecimal("400000.00"));
+        repository.save(expensive);
+        repository.save(cheap);
+        repository.save(middle);
+
+        assertEquals(List.of(cheap, middle, expensive), byPrice(repository, null, null));
+        assertEquals(List.of(middle), byPrice(repository, new BigDecimal("400000"), new BigDecimal("400000")));
+        assertTrue(byPrice(repository, new BigDecimal("500000"), new BigDecimal("100000")).isEmpty());
+
+        middle.setPrice(new BigDecimal("1200000"));
+        repository.save(middle);
+        assertEquals(List.of(cheap, expensive), byPrice(repository, null, new BigDecimal("1000000")));
+        assertEquals(List.of(expensive, middle), byPrice(repository, new BigDecimal("500000"), null));
+    }
+
+    @Test
+    void substringSearchMatchesFullScan() {
+        FlowerRepositoryImpl repository = populate(CATALOG_SIZE);
+        String[] terms = {"rose", "ROSE BOX", "tulip bunch 77", "ly", "x", "orchid", "zzz", "day"};
+
+        for (String term : terms) {
+            assertEquals(ids(scanByName(repository, term)), ids(walk(repository, byName(term, false))));
+            assertEquals(ids(scanByNameOrOccasion(repository, term)), ids(walk(repository, byKeyword(term))));
+        }
+    }
+
+    @Test
+    void substringSearchFollowsRenames() {
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl();
+        Flower flower = newFlower("Red Rose Bouquet", "Love", "Red");
+        repository.save(flower);
+
+        flower.setName("White Lily Vase");
+        repository.save(flower);
+
+        assertTrue(walk(repository, byName("rose", false)).isEmpty());
+        assertEquals(List.of(flower), walk(repository, byName("lily", false)));
+        assertEquals(List.of(flower), walk(repository, byKeyword("lov")));
+
+        repository.deleteById(flower.getId());
+        assertTrue(walk(repository, byName("lily", false)).isEmpty());
+    }
+
+    @Test
+    void accentInsensitiveSearchMatchesVietnameseNames() {
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl();
+        Flower rose = repository.save(newFlower("Bó Hoa Hồng Đỏ", "Valentine", "Red"));
+        Flower lily = repository.save(newFlower("Giỏ hoa ly trắng", "Khai trương", "White"));
+
+        assertEquals(List.of(rose), walk(repository, byName("hoa hong", true)));
+        assertEquals(List.of(rose), walk(repository, byName("HOA HỒNG đỏ", true)));
+        assertEquals(List.of(rose, lily), walk(repository, byName("hoa", true)));
+        assertEquals(List.of(lily), walk(repository, byName("ly trang", true)));
+        // The exact path keeps its accent-sensitive semantics
+        assertTrue(walk(repository, byName("hoa hong", false)).isEmpty());
+
+        rose.setName("Bó Hoa Cúc");
+        repository.save(rose);
+        assertTrue(walk(repository, byName("hoa hong", true)).isEmpty());
+        assertEquals(List.of(rose), walk(repository, byName("hoa cuc", true)));
+    }
+
+    @Test
+    void autocompleteRanksByPopularityAndFollowsChanges() {
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl();
+        Flower red = newFlower("Hoa Hồng Đỏ", "Love", "Red");
+        red.setSoldCount(5);
+        Flower white = newFlower("Hoa hồng trắng", "Wedding", "White");
+        white.setSoldCount(40);
+        Flower pink = newFlower("Hoa hồng phấn", "Birthday", "Pink");
+        pink.setSoldCount(5);
+        pink.setViewCount(900);
+        Flower lily = newFlower("Hoa ly", "Opening", "White");
+        lily.setSoldCount(100);
+        for (Flower flower : List.of(red, white, pink, lily)) {
+            repository.save(flower);
+        }
+
+        assertEquals(List.of(white, pink, red), repository.autocomplete("hoa hong", 10));
+        assertEquals(List.of(lily, white), repository.autocomplete("HOA ", 2));
+        assertTrue(repository.autocomplete("gerbera", 5).isEmpty());
+
+        white.setStatus("INACTIVE");
+        repository.save(white);
+        pink.setName("Cúc họa mi");
+        repository.save(pink);
+        repository.deleteById(lily.getId());
+        assertEquals(List.of(red), repository.autocomplete("hoa", 10));
+        assertEquals(List.of(pink), repository.autocomplete("cuc", 10));
+    }
+
+    @Test
+    void bestSellersFollowSoldCountAndStatus() {
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl();
+        Flower a = newFlower("A", "Love", "Red");
+        a.setSoldCount(10);
+        Flower b = newFlower("B", "Love", "Red");
+        b.setSoldCount(30);
+        Flower c = newFlower("C", "Love", "Red");
+        c.setSoldCount(20);
+        for (Flower flower : List.of(a, b, c)) {
+            repository.save(flower);
+        }
+        assertEquals(List.of(b, c), repository.findBestSelling(2));
+
+        a.setSoldCount(50);
+        repository.save(a);
+        b.setStatus("OUT_OF_STOCK");
+        repository.save(b);
+        assertEquals(List.of(a, c), repository.findBestSelling(8));
+
+        repository.deleteById(a.getId());
+        assertEquals(List.of(c), repository.findBestSelling(8));
+    }
+
+    @Test
+    void hotAndFeaturedSnapshotsFollowViewCountAndFlags() {
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl();
+        Flower a = newFlower("A", "Love", "Red");
+        a.setIsHot(true);
+        a.setViewCount(10);
+        Flower b = newFlower("B", "Love", "Red");
+        b.setIsHot(true);
+        b.setIsFeatured(true);
+        b.setViewCount(20);
+        Flower c = newFlower("C", "Love", "Red");
+        c.setIsFeatured(true);
+        c.setViewCount(30);
+        for (Flower flower : List.of(a, b, c)) {
+            repository.save(flower);
+        }
+        List<Flower> hotBefore = repository.findHotFlowers();
+        assertEquals(List.of(b, a), hotBefore);
+        assertEquals(List.of(c, b), repository.findFeaturedFlowers());
+
+        a.setViewCount(99);
+        repository.save(a);
+        c.setStatus("INACTIVE");
+        repository.save(c);
+        assertEquals(List.of(a, b), repository.findHotFlowers());
+        assertEquals(List.of(b), repository.findFeaturedFlowers());
+        // Published snapshots are immutable; readers keep the version they read
+        assertEquals(List.of(b, a), hotBefore);
+
+        repository.deleteById(b.getId());
+        assertEquals(List.of(a), repository.findHotFlowers());
+        assertTrue(repository.findFeaturedFlowers().isEmpty());
+    }
+
+    @Test
+    void batchedViewCountsReorderHotFlowers() {
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl();
+        Flower a = newFlower("A", "Love", "Red");
+        a.setIsHot(true);
+        a.setViewCount(10);
+        Flower b = newFlower("B", "Love", "Red");
+        b.setIsHot(true);
+        b.setViewCount(20);
+        repository.save(a);
+        repository.save(b);
+
+        repository.addViewCounts(Map.of(a.getId(), 15L, 999L, 3L));
+
+        assertEquals(25, a.getViewCount().intValue());
+        assertEquals(List.of(a, b), repository.findHotFlowers());
+    }
+
+    @Test
+    void combinedQueryMatchesBruteForceAndPages() {
+        FlowerRepositoryImpl repository = populate(CATALOG_SIZE);
+        FlowerQuery query = new FlowerQuery();
+        query.setOccasion("wedding");
+        query.setColor("WHITE");
+        query.setMinPrice(BigDecimal.valueOf(500_000));
+        query.setMaxPrice(BigDecimal.valueOf(1_500_000));
+        query.setKeyword("gerbera");
+        query.setSort(FlowerSort.PRICE_DESC);
+        query.setSize(7);
+
+        List<Flower> expected = repository.findAll().stream()
+                .filter(f -> f.getOccasion().equalsIgnoreCase("wedding"))
+                .filter(f -> f.getColor().equalsIgnoreCase("white"))
+                .filter(f -> f.getPrice().compareTo(BigDecimal.valueOf(500_000)) >= 0
+                        && f.getPrice().compareTo(BigDecimal.valueOf(1_500_000)) <= 0)
+                .filter(f -> f.getName().toLowerCase().contains("gerbera") || f.getOccasion().toLowerCase().contains("gerbera"))
+                .sorted(java.util.Comparator.comparing(Flower::getPrice).reversed().thenComparing(Flower::getId))
+                .collect(Collectors.toList());
+
+        PageResult<Flower> first = repository.query(query);
+        assertEquals((long) expected.size(), first.getTotalElements());
+        assertEquals(expected.subList(0, 7), first.getItems());
+        query.setPage(1);
+        assertEquals(expected.subList(7, 14), repository.query(query).getItems());
+
+        FlowerQuery none = new FlowerQuery();
+        none.setOccasion("unknown");
+        none.setKeyword("rose");
+        assertEquals(0L, repository.query(none).getTotalElements());
+    }
+
+    @Test
+    void facetCountsMatchBruteForceAndFollowUpdates() {
+        FlowerRepositoryImpl repository = populate(CATALOG_SIZE);
+        FlowerQuery query = new FlowerQuery();
+        query.setOccasion("Birthday");
+        query.setColor("red");
+        query.setMaxPrice(BigDecimal.valueOf(300_000));
+
+        FlowerFacetCounts counts = repository.facetCounts(query);
+        List<Flower> all = repository.findAll();
+        java.util.function.Predicate<Flower> birthday = f -> f.getOccasion().equalsIgnoreCase("birthday");
+        java.util.function.Predicate<Flower> red = f -> f.getColor().equalsIgnoreCase("red");
+        java.util.function.Predicate<Flower> cheap = f -> f.getPrice().compareTo(BigDecimal.valueOf(300_000)) <= 0;
+
+        assertEquals(all.stream().filter(birthday.and(red).and(cheap)).count(), counts.getTotal());
+        // Color facet ignores the color filter but keeps the others
+        Map<String, Long> expectedColors = all.stream().filter(birthday.and(cheap))
+                .collect(Collectors.groupingBy(f -> f.getColor().toLowerCase(), Collectors.counting()));
+        assertEquals(expectedColors, counts.getColors());
+        Map<String, Long> expectedOccasions = all.stream().filter(red.and(cheap))
+                .collect(Collectors.groupingBy(f -> f.getOccasion().toLowerCase(), Collectors.counting()));
+        assertEquals(expectedOccasions, counts.getOccasions());
+        long under100k = all.stream().filter(birthday.and(red))
+                .filter(f -> f.getPrice().compareTo(BigDecimal.valueOf(100_000)) < 0).count();
+        assertEquals(Long.valueOf(under100k), counts.getPriceBuckets().get("0-100000"));
+
+        // Recolor one red birthday flower and delete another
+        List<Flower> redBirthday = all.stream().filter(birthday.and(red).and(cheap)).collect(Collectors.toList());
+        Flower recolored = redBirthday.get(0);
+        recolored.setColor("White");
+        recolored.setCategoryId(7L);
+        repository.save(recolored);
+        repository.deleteById(redBirthday.get(1).getId());
+
+        FlowerFacetCounts updated = repository.facetCounts(query);
+        assertEquals(counts.getTotal() - 2, updated.getTotal());
+        assertEquals(Long.valueOf(counts.getColors().get("red") - 2), updated.getColors().get("red"));
+        assertEquals(Long.valueOf(counts.getColors().get("white") + 1), updated.getColors().get("white"));
+        assertEquals(null, updated.getCategories().get(7L));
+        query.setColor(null);
+        assertEquals(Long.valueOf(1), repository.facetCounts(query).getCategories().get(7L));
+    }
+
+    @Test
+    void cursorPagesWalkMatchesInIdOrderAndSurviveDeletes() {
+        FlowerRepositoryImpl repository = populate(CATALOG_SIZE);
+        FlowerQuery query = new FlowerQuery();
+        query.setOccasion("Wedding");
+        query.setMaxPrice(BigDecimal.valueOf(400_000));
+
+        List<Long> expected = repository.findAll().stream()
+                .filter(f -> f.getOccasion().equalsIgnoreCase("wedding"))
+                .filter(f -> f.getPrice().compareTo(BigDecimal.valueOf(400_000)) <= 0)
+                .map(Flower::getId)
+                .sorted()
+                .collect(Collectors.toList());
+
+        List<Long> walked = new ArrayList<>();
+        Long cursor = null;
+        do {
+            CursorPage<Flower> page = repository.findPage(query, cursor, 100);
+            assertTrue(page.getItems().size() <= 100);
+            page.getItems().forEach(flower -> walked.add(flower.getId()));
+            cursor = page.getNextCursor();
+            // Deleting an already returned flower must not shift later pages
+            if (cursor != null) {
+                repository.deleteById(page.getItems().get(0).getId());
+            }
+        } while (cursor != null);
+        assertEquals(expected, walked);
+
+        // Unfiltered catalog and accent-insensitive name pages
+        List<Long> firstIds = repository.findAll().stream().map(Flower::getId).sorted().limit(3)
+                .collect(Collectors.toList());
+        CursorPage<Flower> first = repository.findPage(new FlowerQuery(), null, 3);
+        assertEquals(firstIds, first.getItems().stream().map(Flower::getId).collect(Collectors.toList()));
+        assertEquals(firstIds.get(2), first.getNextCursor());
+        Flower vietnamese = newFlower("Hoa Hồng Đỏ", "Love", "Red");
+        repository.save(vietnamese);
+        FlowerQuery byName = new FlowerQuery();
+        byName.setName("hoa hong");
+        byName.setIgnoreAccents(true);
+        CursorPage<Flower> named = repository.findPage(byName, null, 10);
+        assertEquals(List.of(vietnamese), named.getItems());
+        assertEquals(null, named.getNextCursor());
+    }
+
+    @Test
+    void priceRangePagesComeInIdOrderWhetherTheRangeIsWideOrNarrow() {
+        FlowerRepositoryImpl repository = populate(CATALOG_SIZE);
+        // Wide ranges are walked through the id order, narrow ones are sorted by id per page
+        BigDecimal[][] ranges = {
+                {null, null},
+                {BigDecimal.valueOf(60_000), BigDecimal.valueOf(1_800_000)},
+                {BigDecimal.valueOf(100_000), BigDecimal.valueOf(100_000)},
+                {BigDecimal.valueOf(2_000_000), null}
+        };
+        for (BigDecimal[] range : ranges) {
+            FlowerQuery query = new FlowerQuery();
+            query.setMinPrice(range[0]);
+            query.setMaxPrice(range[1]);
+            List<Long> expected = repository.findAll().stream()
+                    .filter(f -> range[0] == null || f.getPrice().compareTo(range[0]) >= 0)
+                    .filter(f -> range[1] == null || f.getPrice().compareTo(range[1]) <= 0)
+                    .map(Flower::getId)
+                    .sorted()
+                    .collect(Collectors.toList());
+
+            List<Long> walked = walk(repository, query).stream().map(Flower::getId).collect(Collectors.toList());
+            assertEquals(expected, walked);
+        }
+    }
+
+    static FlowerRepositoryImpl populate(int size) {
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl();
+        for (int i = 0; i < size; i++) {
+            Flower flower = newFlower(
+                    KINDS[i % KINDS.length] + " " + STYLES[(i / KINDS.length) % STYLES.length] + " " + i,
+                    OCCASIONS[i % OCCASIONS.length],
+                    COLORS[(i / OCCASIONS.length) % COLORS.length]
+            );
+            flower.setPrice(BigDecimal.valueOf(50_000L + (i % 2_000) * 1_000L));
+            repository.save(flower);
+        }
+        return repository;
+    }
+
+    static Flower newFlower(String name, String occasion, String color) {
+        Flower flower = new Flower();
+        flower.setName(name);
+        flower.setOccasion(occasion);
+        flower.setColor(color);
+        flower.setPrice(BigDecimal.valueOf(100_000));
+        return flower;
+    }
+
+    /**
+     * Every match of the query, collected by following findPage cursors from the first page.
+     */
+    static List<Flower> walk(FlowerRepositoryImpl repository, FlowerQuery query) {
+        List<Flower> flowers = new ArrayList<>();
+        Long cursor = null;
+        do {
+            CursorPage<Flower> page = repository.findPage(query, cursor, 100);
+            flowers.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return flowers;
+    }
+
+    static FlowerQuery byOccasion(String occasion) {
+        FlowerQuery query = new FlowerQuery();
+        query.setOccasion(occasion);
+        return query;
+    }
+
+    static FlowerQuery byName(String name, boolean ignoreAccents) {
+        FlowerQuery query = new FlowerQuery();
+        query.setName(name);
+        query.setIgnoreAccents(ignoreAccents);
+        return query;
+    }
+
+    private static FlowerQuery byColor(String color) {
+        FlowerQuery query = new FlowerQuery();
+        query.setColor(color);
+        return query;
+    }
+
+    private static FlowerQuery byKeyword(String keyword) {
+        FlowerQuery query = new FlowerQuery();
+        query.setKeyword(keyword);
+        return query;
+    }
+
+    // Price-ordered slice through the planned query, as the price filter sorts it
+    private static List<Flower> byPrice(FlowerRepositoryImpl repository, BigDecimal minPrice, BigDecimal maxPrice) {
+        FlowerQuery query = new FlowerQuery();
+        query.setMinPrice(minPrice);
+        query.setMaxPrice(maxPrice);
+        query.setSort(FlowerSort.PRICE_ASC);
+        query.setSize(100);
+        return repository.query(query).getItems();
+    }
+
+    static Set<Long> ids(List<Flower> flowers) {
+        return flowers.stream().map(Flower::getId).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    // Previous full-scan implementations, kept as the baseline
+    static List<Flower> scanByOccasion(FlowerRepositoryImpl repository, String occasion) {
+        String searchOccasion = occasion.toLowerCase().trim();
+        return repository.findAll().stream()
+                .filter(flower -> flower.getOccasion() != null &&
+                        flower.getOccasion().toLowerCase().equals(searchOccasion))
+                .collect(Collectors.toList());
+    }
+
+    static List<Flower> scanByName(FlowerRepositoryImpl repository, String name) {
+        String searchTerm = name.toLowerCase().trim();
+        return repository.findAll().stream()
+                .filter(flower -> flower.getName() != null &&
+                        flower.getName().toLowerCase().contains(searchTerm))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Flower> scanByNameOrOccasion(FlowerRepositoryImpl repository, String keyword) {
+        String searchTerm = keyword.toLowerCase().trim();
+        return repository.findAll().stream()
+                .filter(flower ->
+                        (flower.getName() != null && flower.getName().toLowerCase().contains(searchTerm)) ||
+                        (flower.getOccasion() != null && flower.getOccasion().toLowerCase().contains(searchTerm)))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Flower> scanByColor(FlowerRepositoryImpl repository, String color) {
+        String searchColor = color.toLowerCase().trim();
+        return repository.findAll().stream()
+                .filter(flower -> flower.getColor() != null &&
+                        flower.getColor().toLowerCase().equals(searchColor))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,251 @@
+package com.jett.flowershop.infrastructure.repository;
+
+import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.infrastructure.persistence.FlowerCodec;
+import com.jett.flowershop.infrastructure.persistence.Journal;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that FlowerRepositoryImpl survives a restart through its append log:
+ * replay restores entities, indexes and the id sequence, and a torn tail is dropped.
+ * Deleted ids stay used across restarts and compaction.
+ */
+class FlowerRepositoryImplPersistenceTests {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @Test
+    void replayRestoresFlowersIndexesAndIdSequence() throws IOException {
+        Path directory = Files.createTempDirectory("flowers-log");
+        Journal<Flower> journal = open(directory);
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl(journal);
+        for (int i = 0; i < 2_000; i++) {
+            Flower flower = FlowerRepositoryImplIndexTests.newFlower("Rose " + i, i % 2 == 0 ? "Birthday" : "Wedding", "Red");
+            flower.setPrice(new BigDecimal("150000.50"));
+            flower.setCreatedAt(LocalDateTime.of(2025, 12, 18, 10, 30, 15, 123_000_000));
+            repository.save(flower);
+        }
+        Flower renamed = repository.findById(7L).orElseThrow();
+        renamed.setName("Tulip Hồng");
+        renamed.setDescription(null);
+        repository.save(renamed);
+        repository.deleteById(8L);
+        repository.addViewCounts(java.util.Map.of(9L, 42L));
+        journal.close();
+
+        // Small segments force the log across many files
+        assertTrue(segmentFiles(directory).size() > 1, "log should roll over to new segments");
+
+        Journal<Flower> reopened = open(directory);
+        FlowerRepositoryImpl restored = new FlowerRepositoryImpl(reopened);
+        assertEquals(1_999, restored.findAll().size());
+        Flower tulip = restored.findById(7L).orElseThrow();
+        assertEquals("Tulip Hồng", tulip.getName());
+        assertNull(tulip.getDescription());
+        assertEquals(new BigDecimal("150000.50"), tulip.getPrice());
+        assertEquals(LocalDateTime.of(2025, 12, 18, 10, 30, 15, 123_000_000), tulip.getCreatedAt());
+        assertTrue(restored.findById(8L).isEmpty());
+        assertEquals(Integer.valueOf(42), restored.findById(9L).orElseThrow().getViewCount());
+        assertEquals(List.of(tulip), FlowerRepositoryImplIndexTests.walk(restored,
+                FlowerRepositoryImplIndexTests.byName("tulip hong", true)));
+        assertEquals(1_000, FlowerRepositoryImplIndexTests.walk(restored,
+                FlowerRepositoryImplIndexTests.byOccasion("birthday")).size());
+
+        Flower next = restored.save(FlowerRepositoryImplIndexTests.newFlower("Lily", "Love", "White"));
+        assertEquals(Long.valueOf(2_001), next.getId());
+        reopened.close();
+    }
+
+    @Test
+    void tornTailIsDroppedAndLogStaysAppendable() throws IOException {
+        Path directory = Files.createTempDirectory("flowers-log");
+        Journal<Flower> journal = open(directory);
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl(journal);
+        for (int i = 0; i < 10; i++) {
+            repository.save(FlowerRepositoryImplIndexTests.newFlower("Daisy " + i, "Everyday", "White"));
+        }
+        journal.close();
+
+        // Corrupt the payload of the last record, as a crash in the middle of a write would
+        Path segment = segmentFiles(directory).get(0);
+        int end = dataEnd(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFF}), end - 10);
+        }
+
+        Journal<Flower> reopened = open(directory);
+        FlowerRepositoryImpl restored = new FlowerRepositoryImpl(reopened);
+        assertEquals(9, restored.findAll().size());
+        restored.save(FlowerRepositoryImplIndexTests.newFlower("Peony", "Love", "Pink"));
+        reopened.close();
+
+        FlowerRepositoryImpl again = new FlowerRepositoryImpl(open(directory));
+        List<String> names = again.findAll().stream()
+                .sorted(Comparator.comparing(Flower::getId))
+                .map(Flower::getName)
+                .collect(Collectors.toList());
+        assertEquals("Peony", names.get(names.size() - 1));
+        assertEquals(10, names.size());
+    }
+
+    @Test
+    void concurrentWritersAreAllDurable() throws Exception {
+        Path directory = Files.createTempDirectory("flowers-log");
+        Journal<Flower> journal = open(directory);
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl(journal);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int writer = t;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    repository.save(FlowerRepositoryImplIndexTests.newFlower("Iris " + writer + "-" + i, "Tet", "Blue"));
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        journal.close();
+
+        assertEquals(1_600, new FlowerRepositoryImpl(open(directory)).findAll().size());
+    }
+
+    @Test
+    void compactionKeepsConcurrentWritesAndShortensReplay() throws Exception {
+        Path directory = Files.createTempDirectory("flowers-log");
+        Journal<Flower> journal = open(directory);
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl(journal);
+        for (int i = 0; i < 20_000; i++) {
+            repository.save(FlowerRepositoryImplIndexTests.newFlower("Orchid " + i, "Opening", "Purple"));
+        }
+        for (long id = 1; id <= 20_000; id += 2) {
+            Flower flower = repository.findById(id).orElseThrow();
+            flower.setSoldCount(5);
+            repository.save(flower);
+        }
+        long segmentsBefore = segmentFiles(directory).size();
+
+        // Writers keep going while the snapshot is taken
+        Thread writer = new Thread(() -> {
+            for (long id = 2; id <= 4_000; id += 2) {
+                repository.deleteById(id);
+                repository.save(FlowerRepositoryImplIndexTests.newFlower("Lotus " + id, "Tet", "Pink"));
+            }
+        });
+        writer.start();
+        assertTrue(journal.compact() > 0);
+        writer.join();
+        long replayed = journal.recordsSinceSnapshot();
+        journal.close();
+
+        assertTrue(segmentFiles(directory).size() < segmentsBefore, "covered segments should be deleted");
+        assertTrue(replayed <= 4_000, "only the tail after the snapshot is replayed");
+
+        List<Flower> expected = sorted(repository.findAll());
+        List<Flower> restored = sorted(new FlowerRepositoryImpl(open(directory)).findAll());
+        assertEquals(expected, restored);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), restored.get(i).getName());
+            assertEquals(expected.get(i).getSoldCount(), restored.get(i).getSoldCount());
+        }
+    }
+
+    @Test
+    void deletedIdsAreNotReusedAfterRestartOrCompaction() throws IOException {
+        Path directory = Files.createTempDirectory("flowers-log");
+        Journal<Flower> journal = open(directory);
+        FlowerRepositoryImpl repository = new FlowerRepositoryImpl(journal);
+        for (int i = 0; i < 3; i++) {
+            repository.save(FlowerRepositoryImplIndexTests.newFlower("Peony " + i, "Love", "Pink"));
+        }
+        repository.deleteById(3L);
+        journal.close();
+
+        // The delete is still in the log tail
+        journal = open(directory);
+        repository = new FlowerRepositoryImpl(journal);
+        assertEquals(Long.valueOf(4), repository.save(FlowerRepositoryImplIndexTests.newFlower("Peony 3", "Love", "Pink")).getId());
+        repository.deleteById(4L);
+        // The snapshot holds only flowers 1 and 2 and the covered segments are dropped
+        journal.compact();
+        journal.close();
+
+        journal = open(directory);
+        repository = new FlowerRepositoryImpl(journal);
+        assertEquals(2, repository.findAll().size());
+        assertEquals(Long.valueOf(5), repository.save(FlowerRepositoryImplIndexTests.newFlower("Peony 4", "Love", "Pink")).getId());
+        journal.close();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void startupFromSnapshotIsFast() throws IOException {
+        Path directory = Files.createTempDirectory("flowers-log");
+        Journal<Flower> journal = Journal.open(directory, "flowers", new FlowerCodec(), 64 * 1024 * 1024, false);
+        java.util.concurrent.ConcurrentHashMap<Long, Flower> live = new java.util.concurrent.ConcurrentHashMap<>();
+        journal.attach(live);
+        for (long id = 1; id <= 200_000; id++) {
+            Flower flower = FlowerRepositoryImplIndexTests.newFlower("Sunflower " + id, "Graduation", "Yellow");
+            flower.setId(id);
+            flower.setDescription("Hand-tied sunflowers with eucalyptus, wrapped in kraft paper");
+            live.put(id, flower);
+            journal.put(id, flower);
+        }
+        journal.compact();
+        journal.close();
+
+        long start = System.nanoTime();
+        Journal<Flower> reopened = open(directory);
+        int loaded = reopened.recovered().size();
+        long loadNanos = System.nanoTime() - start;
+        reopened.close();
+        assertEquals(200_000, loaded, String.format("loaded from snapshot in %.1f ms", loadNanos / 1e6));
+    }
+
+    private static List<Flower> sorted(List<Flower> flowers) {
+        flowers.sort(Comparator.comparing(Flower::getId));
+        return flowers;
+    }
+
+    private static Journal<Flower> open(Path directory) throws IOException {
+        return Journal.open(directory, "flowers", new FlowerCodec(), SEGMENT_SIZE, true);
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // Offset just past the last record: segments are zero-filled after the data
+    private static int dataEnd(Path segment) throws IOException {
+        byte[] bytes = Files.readAllBytes(segment);
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] == 0) {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,81 @@
+package com.jett.flowershop.infrastructure.repository;
+
+import com.jett.flowershop.application.service.ReviewService;
+import com.jett.flowershop.domain.entity.Review;
+import com.jett.flowershop.domain.query.RatingSummary;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the per-flower review index and rating aggregates stay equal to a full
+ * recount while reviews are approved, rejected, edited in place and deleted.
+ */
+class ReviewRepositoryImplIndexTests {
+
+    @Test
+    void indexMatchesRecountThroughApproveRejectAndDelete() {
+        ReviewRepositoryImpl repository = new ReviewRepositoryImpl();
+        ReviewService reviewService = new ReviewService(repository, event -> { });
+        Random random = new Random(7);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Review review = reviewService.createReview("Customer " + i, null, null,
+                    1 + random.nextInt(5), "Nice", 1L + random.nextInt(4));
+            // createReview derives ids from the clock; make them unique for the test
+            repository.deleteById(review.getId());
+            review.setId((long) i + 1);
+            repository.save(review);
+            ids.add(review.getId());
+        }
+
+        for (int step = 0; step < 2_000; step++) {
+            Long id = ids.get(random.nextInt(ids.size()));
+            if (!repository.existsById(id)) {
+                continue;
+            }
+            int action = random.nextInt(10);
+            if (action < 5) {
+                reviewService.approveReview(id);
+            } else if (action < 8) {
+                reviewService.rejectReview(id);
+            } else if (action < 9) {
+                // Moves an approved review to another flower in place
+                Review review = reviewService.getReviewById(id);
+                review.setFlowerId(1L + random.nextInt(4));
+                review.setRating(1 + random.nextInt(5));
+                repository.save(review);
+            } else {
+                reviewService.deleteReview(id);
+            }
+        }
+
+        for (long flowerId = 1; flowerId <= 5; flowerId++) {
+            long id = flowerId;
+            List<Review> expected = repository.findAll().stream()
+                    .filter(review -> Long.valueOf(id).equals(review.getFlowerId()))
+                    .filter(review -> "APPROVED".equals(review.getStatus()))
+                    .sorted(Comparator.comparing(Review::getCreatedAt).reversed().thenComparing(Review::getId))
+                    .collect(Collectors.toList());
+            assertEquals(expected, repository.findByFlowerId(flowerId));
+
+            long[] histogram = new long[5];
+            long sum = 0;
+            for (Review review : expected) {
+                histogram[review.getRating() - 1]++;
+                sum += review.getRating();
+            }
+            RatingSummary summary = reviewService.getRatingSummary(flowerId);
+            assertEquals(expected.size(), summary.getCount());
+            assertEquals(sum, summary.getSum());
+            assertArrayEquals(histogram, summary.getHistogram());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.jett.flowershop.presentation.homepage;
+
+import com.jett.flowershop.application.event.CatalogChangedEvent;
+import com.jett.flowershop.application.service.BannerService;
+import com.jett.flowershop.application.service.CategoryService;
+import com.jett.flowershop.application.service.FlowerService;
+import com.jett.flowershop.application.service.FlowerViewTracker;
+import com.jett.flowershop.application.service.ReviewService;
+import com.jett.flowershop.application.service.ShopInfoService;
+import com.jett.flowershop.domain.entity.Flower;
+import com.jett.flowershop.domain.entity.Review;
+import com.jett.flowershop.infrastructure.repository.BannerRepositoryImpl;
+import com.jett.flowershop.infrastructure.repository.CategoryRepositoryImpl;
+import com.jett.flowershop.infrastructure.repository.FlowerRepositoryImpl;
+import com.jett.flowershop.infrastructure.repository.ReviewRepositoryImpl;
+import com.jett.flowershop.infrastructure.repository.ShopInfoRepositoryImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the homepage snapshot is reused between requests, rebuilt after a change,
+ * that its encoded variants and ETags line up, and that a slow section keeps its last good value.
+ */
+class HomepageSnapshotHolderTests {
+
+    @Test
+    void snapshotIsReusedUntilTheCatalogChanges() throws Exception {
+        AtomicReference<HomepageSnapshotHolder> holder = new AtomicReference<>();
+        ApplicationEventPublisher publisher = event -> {
+            if (holder.get() != null && event instanceof CatalogChangedEvent) {
+                holder.get().onCatalogChanged((CatalogChangedEvent) event);
+            }
+        };
+        FlowerRepositoryImpl flowerRepository = new FlowerRepositoryImpl();
+        FlowerService flowerService = new FlowerService(flowerRepository,
+                new FlowerViewTracker(flowerRepository, publisher), publisher);
+        holder.set(new HomepageSnapshotHolder(
+                new BannerService(new BannerRepositoryImpl(), publisher),
+                new CategoryService(new CategoryRepositoryImpl(), publisher),
+                flowerService,
+                new ReviewService(new ReviewRepositoryImpl(), publisher),
+                new ShopInfoService(new ShopInfoRepositoryImpl(), publisher),
+                JsonMapper.builder().build(), 500, 5_000, 6));
+
+        HomepageSnapshot first = holder.get().current();
+        assertSame(first, holder.get().current());
+        assertTrue(first.getResponse().getResponseData().getHotFlowers().isEmpty());
+
+        Flower flower = new Flower();
+        flower.setName("Rose");
+        flower.setIsHot(true);
+        flowerService.createFlower(flower);
+
+        HomepageSnapshot rebuilt = first;
+        for (int i = 0; i < 200 && rebuilt == first; i++) {
+            Thread.sleep(10);
+            rebuilt = holder.get().current();
+        }
+        assertEquals(1, rebuilt.getResponse().getResponseData().getHotFlowers().size());
+        assertSame(rebuilt, holder.get().current());
+        assertNotEquals(first.getEtag(), rebuilt.getEtag());
+        assertArrayEquals(rebuilt.getJson(), gunzip(rebuilt.getGzip()));
+        holder.get().shutdown();
+    }
+
+    @Test
+    void slowSectionFallsBackToItsLastGoodValue() throws Exception {
+        AtomicReference<HomepageSnapshotHolder> holder = new AtomicReference<>();
+        ApplicationEventPublisher publisher = event -> {
+            if (holder.get() != null && event instanceof CatalogChangedEvent) {
+                holder.get().onCatalogChanged((CatalogChangedEvent) event);
+            }
+        };
+        ReviewRepositoryImpl reviewRepository = new ReviewRepositoryImpl();
+        Review review = new Review();
+        review.setId(1L);
+        review.setCustomerName("Lan");
+        review.setFeatured(true);
+        review.setApproved(true);
+        review.setStatus("APPROVED");
+        review.setCreatedAt(LocalDateTime.now());
+        reviewRepository.save(review);
+        SlowReviewService reviewService = new SlowReviewService(reviewRepository, publisher);
+        FlowerRepositoryImpl flowerRepository = new FlowerRepositoryImpl();
+        FlowerService flowerService = new FlowerService(flowerRepository,
+                new FlowerViewTracker(flowerRepository, publisher), publisher);
+        holder.set(new HomepageSnapshotHolder(
+                new BannerService(new BannerRepositoryImpl(), publisher),
+                new CategoryService(new CategoryRepositoryImpl(), publisher),
+                flowerService,
+                reviewService,
+                new ShopInfoService(new ShopInfoRepositoryImpl(), publisher),
+                JsonMapper.builder().build(), 100, 60_000, 6));
+
+        HomepageSnapshot first = holder.get().current();
+        assertEquals(1, first.getResponse().getResponseData().getFeaturedReviews().size());
+
+        reviewService.slow = true;
+        Flower flower = new Flower();
+        flower.setName("Rose");
+        flower.setIsHot(true);
+        long start = System.nanoTime();
+        flowerService.createFlower(flower);
+
+        HomepageSnapshot rebuilt = first;
+        for (int i = 0; i < 200 && rebuilt == first; i++) {
+            Thread.sleep(10);
+            rebuilt = holder.get().current();
+        }
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(1, rebuilt.getResponse().getResponseData().getHotFlowers().size());
+        assertEquals("Lan", rebuilt.getResponse().getResponseData().getFeaturedReviews().get(0).getCustomerName());
+        assertTrue(waitedMs < 1_000, "rebuild should not wait for the slow section: " + waitedMs + " ms");
+        // The timed-out load was interrupted rather than left holding a pool thread
+        for (int i = 0; i < 100 && !reviewService.interrupted; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(reviewService.interrupted);
+        holder.get().shutdown();
+    }
+
+    @Test
+    void ifNoneMatchAcceptsEitherRepresentationOfTheCurrentVersion() {
+        HomepageSnapshot snapshot = HomepageSnapshot.of(null, "{\"a\":1}".getBytes());
+        assertTrue(snapshot.getEtag().startsWith("\"") && snapshot.getEtag().endsWith("\""));
+        assertEquals(snapshot.getEtag(), HomepageSnapshot.of(null, "{\"a\":1}".getBytes()).getEtag());
+
+        assertTrue(snapshot.matches(snapshot.getEtag()));
+        assertTrue(snapshot.matches("\"old\", " + snapshot.getGzipEtag()));
+        assertTrue(snapshot.matches("W/" + snapshot.getEtag()));
+        assertTrue(snapshot.matches("*"));
+        assertFalse(snapshot.matches(null));
+        assertFalse(snapshot.matches(HomepageSnapshot.of(null, "{\"a\":2}".getBytes()).getEtag()));
+    }
+
+    private static class SlowReviewService extends ReviewService {
+
+        private volatile boolean slow;
+        private volatile boolean interrupted;
+
+        SlowReviewService(ReviewRepositoryImpl reviewRepository, ApplicationEventPublisher publisher) {
+            super(reviewRepository, publisher);
+        }
+
+        @Override
+        public List<Review> getFeaturedReviews() {
+            if (slow) {
+                try {
+                    Thread.sleep(2_000);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.getFeaturedReviews();
+        }
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}